@@ -35,10 +35,11 @@ public class BDDSingleFactory {
      * @param cacheSize Size of cache
      * 
      * This method creates BDDFactory object if the one has been created; 
-     * otherwise it does nothing
+     * otherwise it does nothing; BDDs of the old factory become invalid
      */
     public static void recreate(int numberOfVariables, int cacheSize) {
         if (factory != null) {
+            factory.done();
             factory = BDDFactory.init(IMPLEMENTATION, numberOfVariables, cacheSize);
         }
     }
@@ -1,9 +1,14 @@
 package com.system;
 
 import com.system.kripkestructure.Variable;
+import com.system.temporallogic.Trace;
 import com.system.util.SingleLogger;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import net.sf.javabdd.BDD;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -15,14 +20,18 @@ import org.apache.log4j.Logger;
 public class CTLVerificator {
     
     private static final String EMPTY = "The model or property is empty.";
+    private static final int MAX_EXAMPLES = 1000;
     private static final String NO_VERIFICATION = "There was no verification,"
             + " but counterexamples has been requested.";
     
     private BDD propertyBDD;
     private BDD startStatesBDD;
     private List<Variable> variables;
+    private int[] stateVariables;
     private BDD counterexample;
-    private BDDStringParser parser;
+    private StateSet counterexampleSet;
+    private Trace counterexampleTrace;
+    private Trace witnessTrace;
     private VerificationResult verificationResult;
     
     private static Logger logger;
@@ -59,6 +68,34 @@ public class CTLVerificator {
         this.variables = variables;
     }
 
+    /**
+     *
+     * @param stateVariables BDD variable of each bit of the state, in order 
+     * of the variables given by setVariables, the most significant bit first; 
+     * if it's not given, BDD variables are expected to go in this order.
+     */
+    public void setStateVariables(int[] stateVariables) {
+        this.stateVariables = stateVariables;
+    }
+
+    /**
+     *
+     * @param counterexampleTrace Path from a start state showing why 
+     * the property doesn't hold there.
+     */
+    public void setCounterexampleTrace(Trace counterexampleTrace) {
+        this.counterexampleTrace = counterexampleTrace;
+    }
+
+    /**
+     *
+     * @param witnessTrace Path from a start state showing why the property 
+     * holds there.
+     */
+    public void setWitnessTrace(Trace witnessTrace) {
+        this.witnessTrace = witnessTrace;
+    }
+
     /**
      *
      * @return Result of verification.
@@ -76,7 +113,8 @@ public class CTLVerificator {
      * @param numberOfExamples Number of counterexamples required. Maximum 
      * number of  exampes returning to invoking code is 1000 now; -1 is 
      * equivalent to maximum number of variables (1000 now). This parameter 
-     * should be positive of -1.
+     * should be positive of -1. All of them are given by 
+     * getCounterexampleIterator.
      * @return List of counterexamples, which size is less or equals 
      * numberOfExamples, but more than 0, if property doen't holds on 
      * Kripke structure; empty list if property holds; null if there wasn't 
@@ -89,6 +127,153 @@ public class CTLVerificator {
         if(numberOfExamples < -1 || numberOfExamples == 0) {
             throw new IllegalArgumentException();
         }
+        if (counterexample == null) {
+            logger.log(Level.INFO, NO_VERIFICATION);
+            return null;
+        }
+        int maxExamples = numberOfExamples == -1 || numberOfExamples > MAX_EXAMPLES ? 
+                MAX_EXAMPLES : numberOfExamples;
+        List<String> examples = new ArrayList<>();
+        Iterator<String> iterator = new StateIterator(
+                getCounterexampleSet().getStatesBDD(), variables, stateVariables);
+        while (iterator.hasNext() && examples.size() < maxExamples) {
+            examples.add(iterator.next());
+        }
+        return examples;
+    }
+    
+    /**
+     * A range of values of a variable is given as a single interval, 
+     * so large sets of counterexamples take a few lines.
+     *
+     * @param numberOfLines Maximum number of lines; -1 is equivalent to 
+     * maximum number of counterexamples (1000 now). This parameter should be 
+     * positive or -1.
+     * @return Lines like "pc=7, x in [-32768..-1], y=3", which together 
+     * represent the counterexamples (all of them, if there are no more 
+     * lines than required); empty list if property holds; null if there 
+     * wasn't any verification.
+     * @throws IllegalArgumentException
+     */
+    public List<String> getCounterexampleIntervals(int numberOfLines) 
+            throws IllegalArgumentException {
+        if (numberOfLines < -1 || numberOfLines == 0) {
+            throw new IllegalArgumentException();
+        }
+        if (counterexample == null) {
+            logger.log(Level.INFO, NO_VERIFICATION);
+            return null;
+        }
+        int maxLines = numberOfLines == -1 ? MAX_EXAMPLES : numberOfLines;
+        BDD statesBDD = getCounterexampleSet().getStatesBDD();
+        return new IntervalRenderer(statesBDD.getFactory(), variables, stateVariables)
+                .render(statesBDD, maxLines);
+    }
+    
+    /**
+     * States are produced on demand walking the BDD, so sets of any size 
+     * can be paged through.
+     *
+     * @return Iterator over all counterexamples, in the same form as 
+     * getCounterexamples gives; null if there wasn't any verification.
+     */
+    public Iterator<String> getCounterexampleIterator() {
+        if (counterexample == null) {
+            logger.log(Level.INFO, NO_VERIFICATION);
+            return null;
+        }
+        return new StateIterator(getCounterexampleSet().getStatesBDD(), variables, 
+                stateVariables);
+    }
+    
+    /**
+     *
+     * @return Exact number of counterexamples; null if there wasn't any 
+     * verification.
+     */
+    public BigInteger getCounterexamplesNumber() {
+        if (counterexample == null) {
+            logger.log(Level.INFO, NO_VERIFICATION);
+            return null;
+        }
+        return getCounterexampleSet().count();
+    }
+    
+    /**
+     *
+     * @return Number of counterexamples at each location of the program 
+     * (value of pc), locations without them being left out; null if there 
+     * wasn't any verification.
+     */
+    public Map<Integer, BigInteger> getCounterexamplesNumberByPC() {
+        if (counterexample == null) {
+            logger.log(Level.INFO, NO_VERIFICATION);
+            return null;
+        }
+        return getCounterexampleSet().countByPC();
+    }
+    
+    /**
+     * Each counterexample has the same chance to be taken, whatever 
+     * the number of them is.
+     *
+     * @param numberOfExamples Number of counterexamples to take; they are 
+     * taken independently, so some of them may repeat.
+     * @param random Source of random numbers.
+     * @return List of randomly taken counterexamples; empty list if property 
+     * holds; null if there wasn't any verification.
+     * @throws IllegalArgumentException if numberOfExamples isn't positive
+     */
+    public List<String> sampleCounterexamples(int numberOfExamples, Random random) 
+            throws IllegalArgumentException {
+        if (numberOfExamples <= 0 || random == null) {
+            throw new IllegalArgumentException();
+        }
+        if (counterexample == null) {
+            logger.log(Level.INFO, NO_VERIFICATION);
+            return null;
+        }
+        List<String> examples = new ArrayList<>();
+        if (counterexample.isZero()) {
+            return examples;
+        }
+        for (int i = 0; i < numberOfExamples; i++) {
+            examples.add(getCounterexampleSet().sample(random));
+        }
+        return examples;
+    }
+    
+    /**
+     *
+     * @param state State in the same form as counterexamples, like 
+     * "pc=3, f=true, k=1"; all variables must be given.
+     * @return True if the state is a counterexample; false if it isn't or 
+     * there wasn't any verification.
+     * @throws IllegalArgumentException if the state is bad-written one
+     */
+    public boolean isCounterexample(String state) throws IllegalArgumentException {
+        if (counterexample == null) {
+            logger.log(Level.INFO, NO_VERIFICATION);
+            return false;
+        }
+        return getCounterexampleSet().contains(state);
+    }
+    
+    private StateSet getCounterexampleSet() {
+        if (counterexampleSet == null) {
+            counterexampleSet = new StateSet(counterexample, variables, stateVariables);
+        }
+        return counterexampleSet;
+    }
+    
+    /**
+     *
+     * @return States of the path from a start state showing why the property 
+     * doesn't hold there, in the same form as counterexamples; empty list 
+     * if the property holds or there is no such path; null if there wasn't 
+     * any verification.
+     */
+    public List<String> getCounterexampleTrace() {
         if (counterexample == null) {
             logger.log(Level.INFO, NO_VERIFICATION);
             return null;
@@ -96,10 +281,46 @@ public class CTLVerificator {
         if (counterexample.isZero()) {
             return new ArrayList<>();
         }
-        if (parser == null) {
-            parser = new BDDStringParser(variables);
+        return decodeTrace(counterexampleTrace);
+    }
+    
+    /**
+     *
+     * @return Index of the state of the counterexample trace its last state 
+     * goes back to; -1 if the trace is finite or there is no trace.
+     */
+    public int getCounterexampleLoopIndex() {
+        return counterexampleTrace == null ? -1 : counterexampleTrace.getLoopIndex();
+    }
+    
+    /**
+     *
+     * @return States of the path from a start state showing why the property 
+     * holds there, in the same form as counterexamples; empty list if there 
+     * is no such path.
+     */
+    public List<String> getWitnessTrace() {
+        return decodeTrace(witnessTrace);
+    }
+    
+    /**
+     *
+     * @return Index of the state of the witness trace its last state goes 
+     * back to; -1 if the trace is finite or there is no trace.
+     */
+    public int getWitnessLoopIndex() {
+        return witnessTrace == null ? -1 : witnessTrace.getLoopIndex();
+    }
+    
+    private List<String> decodeTrace(Trace trace) {
+        List<String> states = new ArrayList<>();
+        if (trace == null || variables == null) {
+            return states;
+        }
+        for (BDD state : trace.getStates()) {
+            states.add(new StateIterator(state, variables, stateVariables).next());
         }
-        return parser.parse(counterexample.toString(), numberOfExamples);
+        return states;
     }
     
     private boolean isModelValid() {
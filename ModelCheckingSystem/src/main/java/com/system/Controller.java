@@ -1,14 +1,8 @@
 package com.system;
 
-import com.system.kripkestructure.AtomicPredicate;
-import com.system.kripkestructure.KripkeStructureTranslator;
-import com.system.kripkestructure.ProgramCounterVariable;
-import com.system.kripkestructure.Variable;
-import com.system.temporallogic.CTLTranslator;
-import java.util.ArrayList;
-import java.util.LinkedList;
+import com.system.kripkestructure.VariableOrdering;
 import java.util.List;
-import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
 
 /**
  *
@@ -18,14 +12,20 @@ public class Controller {
     
     private String program;
     private List<String> conditions;
-    private List<AtomicPredicate> atomicPredicates;
     private String formula;
+    private VariableOrdering variableOrdering = VariableOrdering.INTERLEAVED;
+    private BDDFactory.ReorderMethod reorderMethod = BDDFactory.REORDER_NONE;
+    private BDDFactory.ReorderMethod afterTranslationReorderMethod = 
+            BDDFactory.REORDER_NONE;
+    private boolean isRestrictedToReachableStates = false;
+    private boolean isSymbolicInputs = true;
     
     /**
      *
      * @param program String representing program written in a simple C-like 
-     * language; it has only <i>int</i> variables, <i>if</i> and <i>if-else</i> 
-     * statements, <i>while</i> statement, assign statement (like a = b * 6), 
+     * language; it has <i>int</i> (16 bits), <i>intN</i> (N bits, like int4 c), 
+     * ranged <i>int</i> (like int[0..10] k) and <i>bool</i> variables, 
+     * <i>if</i> and <i>if-else</i> statements, <i>while</i> statement, assign statement (like a = b * 6), 
      * <i>read</i> operator (for example, read(i)).
      */
     public void setProgram(String program) {
@@ -68,6 +68,64 @@ public class Controller {
         this.formula = formula;
     }
     
+    /**
+     *
+     * @param variableOrdering Order of BDD variables used for the Kripke 
+     * structure; INTERLEAVED by default.
+     */
+    public void setVariableOrdering(VariableOrdering variableOrdering) {
+        if (variableOrdering == null) {
+            throw new NullPointerException();
+        }
+        this.variableOrdering = variableOrdering;
+    }
+    
+    /**
+     *
+     * @param reorderMethod Method of automatic reordering of BDD variables 
+     * (like BDDFactory.REORDER_SIFT), which runs when the node table grows; 
+     * REORDER_NONE by default.
+     */
+    public void setReorderMethod(BDDFactory.ReorderMethod reorderMethod) {
+        if (reorderMethod == null) {
+            throw new NullPointerException();
+        }
+        this.reorderMethod = reorderMethod;
+    }
+    
+    /**
+     *
+     * @param reorderMethod Method of reordering of BDD variables applied once 
+     * the Kripke structure is translated, before the CTL formula is checked; 
+     * REORDER_NONE by default.
+     */
+    public void setReorderAfterTranslation(BDDFactory.ReorderMethod reorderMethod) {
+        if (reorderMethod == null) {
+            throw new NullPointerException();
+        }
+        this.afterTranslationReorderMethod = reorderMethod;
+    }
+    
+    /**
+     *
+     * @param isRestricted If it's true, the CTL formula is evaluated on states 
+     * reachable from the start states only; false by default.
+     */
+    public void setRestrictToReachableStates(boolean isRestricted) {
+        this.isRestrictedToReachableStates = isRestricted;
+    }
+    
+    /**
+     *
+     * @param isSymbolic If it's true, values given by read aren't enumerated; 
+     * conditions and assignments using them are translated into BDDs built 
+     * by bit-vector arithmetic instead; true by default, false enumerates 
+     * them as a fallback.
+     */
+    public void setSymbolicInputs(boolean isSymbolic) {
+        this.isSymbolicInputs = isSymbolic;
+    }
+    
     /**
      *
      * @return CTLVerificator instance, if there was no errors during 
@@ -77,35 +135,20 @@ public class Controller {
      */
     public CTLVerificator startVerification() {
         try {
-            CTLVerificator verificator = new CTLVerificator();
-            ProgramTaker programTaker = new ProgramTaker(program);
-            List<Variable> variables = programTaker.getProgramVariables();
-            List<String> operators = programTaker.splitProgram();
-            if (variables == null || operators == null) {
-                return null;
+            VerificationSession session = new VerificationSession(program);
+            session.setVariableOrdering(variableOrdering);
+            session.setReorderMethod(reorderMethod);
+            session.setReorderAfterTranslation(afterTranslationReorderMethod);
+            session.setRestrictToReachableStates(isRestrictedToReachableStates);
+            session.setSymbolicInputs(isSymbolicInputs);
+            for (String condition : conditions) {
+                session.addAtomicPredicate(condition);
             }
-            atomicPredicates = new LinkedList<>();
-            for (int i = 0; i < conditions.size(); i++) {
-                atomicPredicates.add(new AtomicPredicate(conditions.get(i)));
-            }
-            KripkeStructureTranslator structureTranslator = new 
-                KripkeStructureTranslator(operators, variables, atomicPredicates);
-
-            if (!structureTranslator.tryTranslate()) {
+            if (!session.open()) {
                 return null;
             }
-
-            CTLTranslator translator = new CTLTranslator(formula);
-            List<BDD> atomicPredicatesBDD = new ArrayList<>();
-            for (int i = 0; i < atomicPredicates.size(); i++) {
-                atomicPredicatesBDD.add(atomicPredicates.get(i).getPredicateBDD());
-            }
-            translator.setAtomicPredicates(atomicPredicatesBDD);
-            translator.setStatesTransitions(structureTranslator.getStatesTransitionBDD());
-            verificator.setPropertyBDD(translator.getBDDResult());
-            verificator.setStartStatesBDD(structureTranslator.getStartStatesBDD());
-            variables.add(0, new ProgramCounterVariable("pc"));
-            verificator.setVariables(variables);
+            CTLVerificator verificator = session.check(formula);
+            session.close();
             return verificator;
         }
         catch (IllegalArgumentException | NullPointerException ex) {
@@ -0,0 +1,207 @@
+package com.system;
+
+import com.system.kripkestructure.Variable;
+import com.system.kripkestructure.VariableType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * Renders a set of states as lines of value intervals, like
+ * "pc=7, x in [-32768..-1], y=3". Variables are taken in turn: values
+ * of a variable are grouped by what the rest of the set is for them, each
+ * group giving intervals of the variable and the rest being rendered
+ * for the next variables. Bits of a variable the set doesn't depend on
+ * aren't split, so a range of values costs as much as a single value.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class IntervalRenderer {
+
+    private static final String IN = " in ";
+
+    private final BDDFactory factory;
+    private final List<Variable> variables;
+    private final int[][] variableBits;
+    private final int[] variableOffsets;
+    private final int[] bitPositions;
+    private List<String> lines;
+    private int maxLines;
+
+    /**
+     *
+     * @param factory BDDFactory the BDDs belong to.
+     * @param variables List of program variables.
+     * @param stateVariables BDD variable of each bit of the state, in order
+     * of the variables, the most significant bit first; null means BDD
+     * variables go in this order.
+     */
+    public IntervalRenderer(BDDFactory factory, List<Variable> variables,
+            int[] stateVariables) {
+        this.factory = factory;
+        this.variables = variables;
+        variableBits = new int[variables.size()][];
+        variableOffsets = new int[variables.size()];
+        int position = 0;
+        int maxBit = -1;
+        for (int i = 0; i < variables.size(); i++) {
+            int size = variables.get(i).getSize();
+            variableBits[i] = new int[size];
+            variableOffsets[i] = position;
+            for (int j = 0; j < size; j++) {
+                variableBits[i][j] = stateVariables == null ? position :
+                        stateVariables[position];
+                maxBit = Math.max(maxBit, variableBits[i][j]);
+                position++;
+            }
+        }
+        bitPositions = new int[maxBit + 1];
+        Arrays.fill(bitPositions, -1);
+        for (int i = 0; i < variables.size(); i++) {
+            for (int j = 0; j < variableBits[i].length; j++) {
+                bitPositions[variableBits[i][j]] = variableOffsets[i] + j;
+            }
+        }
+    }
+
+    /**
+     *
+     * @param statesBDD BDD over state variables representing the states;
+     * it mustn't contain encodings out of range of the variables.
+     * @param maxLines Maximum number of lines.
+     * @return Lines, which together represent the states (or a part of them,
+     * if there are more than maxLines lines).
+     */
+    public List<String> render(BDD statesBDD, int maxLines) {
+        this.maxLines = maxLines;
+        lines = new ArrayList<>();
+        render(statesBDD, 0, "");
+        return lines;
+    }
+
+    private void render(BDD statesBDD, int variable, String prefix) {
+        if (lines.size() >= maxLines || statesBDD.isZero()) {
+            return;
+        }
+        if (variable == variables.size()) {
+            lines.add(prefix);
+            return;
+        }
+        Map<BDD, List<int[]>> groups = new LinkedHashMap<>();
+        collectIntervals(statesBDD, variable, 0, 0, groups);
+        for (Map.Entry<BDD, List<int[]>> group : groups.entrySet()) {
+            String item = renderIntervals(variables.get(variable), group.getValue());
+            render(group.getKey(), variable + 1, prefix.isEmpty() ? item :
+                    prefix + StateIterator.COMMA_SPACE + item);
+            group.getKey().free();
+        }
+    }
+
+    /*
+     * Walks the bits of the variable from the most significant one,
+     * cofactoring the set; once it doesn't depend on the rest of the bits,
+     * the whole range they give is taken at once.
+     */
+    private void collectIntervals(BDD statesBDD, int variable, int bit, int offset,
+            Map<BDD, List<int[]>> groups) {
+        if (statesBDD.isZero()) {
+            return;
+        }
+        int[] bits = variableBits[variable];
+        if (bit == bits.length || !dependsOn(statesBDD, variable, bit)) {
+            int last = offset + (1 << (bits.length - bit)) - 1;
+            addInterval(statesBDD, offset, last, groups);
+            return;
+        }
+        BDD lowBDD = factory.nithVar(bits[bit]);
+        BDD highBDD = factory.ithVar(bits[bit]);
+        BDD lowCofactor = statesBDD.restrict(lowBDD);
+        BDD highCofactor = statesBDD.restrict(highBDD);
+        lowBDD.free();
+        highBDD.free();
+        collectIntervals(lowCofactor, variable, bit + 1, offset, groups);
+        collectIntervals(highCofactor, variable, bit + 1,
+                offset + (1 << (bits.length - bit - 1)), groups);
+        lowCofactor.free();
+        highCofactor.free();
+    }
+
+    /*
+     * Remaining bits of the variable take consecutive positions of the state, 
+     * so each variable of the support is checked at once; the walk stops 
+     * at the first of them.
+     */
+    private boolean dependsOn(BDD statesBDD, int variable, int from) {
+        int first = variableOffsets[variable] + from;
+        int last = variableOffsets[variable] + variableBits[variable].length - 1;
+        boolean isDependent = false;
+        BDD support = statesBDD.support();
+        while (!isDependent && !support.isOne()) {
+            int bit = support.var();
+            int position = bit < bitPositions.length ? bitPositions[bit] : -1;
+            isDependent = position >= first && position <= last;
+            BDD rest = support.high();
+            support.free();
+            support = rest;
+        }
+        support.free();
+        return isDependent;
+    }
+
+    /*
+     * Intervals come in ascending order, so adjacent ones are merged.
+     */
+    private void addInterval(BDD rest, int first, int last, Map<BDD, List<int[]>> groups) {
+        List<int[]> intervals = groups.get(rest);
+        if (intervals == null) {
+            intervals = new ArrayList<>();
+            groups.put(rest.id(), intervals);
+        }
+        if (!intervals.isEmpty() && intervals.get(intervals.size() - 1)[1] == first - 1) {
+            intervals.get(intervals.size() - 1)[1] = last;
+        }
+        else {
+            intervals.add(new int[] {first, last});
+        }
+    }
+
+    private String renderIntervals(Variable variable, List<int[]> intervals) {
+        StringBuilder item = new StringBuilder(variable.getName());
+        int[] first = intervals.get(0);
+        if (intervals.size() == 1 && first[0] == first[1]) {
+            return item.append(StateIterator.EQUATION)
+                    .append(StateIterator.getValueString(first[0], variable)).toString();
+        }
+        if (variable.getType() == VariableType.BOOLEAN) {
+            return item.append(IN).append("{false, true}").toString();
+        }
+        item.append(IN);
+        if (intervals.size() > 1) {
+            item.append('{');
+        }
+        for (int i = 0; i < intervals.size(); i++) {
+            if (i > 0) {
+                item.append(StateIterator.COMMA_SPACE);
+            }
+            int[] interval = intervals.get(i);
+            if (interval[0] == interval[1]) {
+                item.append(StateIterator.getValueString(interval[0], variable));
+            }
+            else {
+                item.append('[')
+                        .append(StateIterator.getValueString(interval[0], variable))
+                        .append("..")
+                        .append(StateIterator.getValueString(interval[1], variable))
+                        .append(']');
+            }
+        }
+        if (intervals.size() > 1) {
+            item.append('}');
+        }
+        return item.toString();
+    }
+}
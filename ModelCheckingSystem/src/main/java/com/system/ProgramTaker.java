@@ -1,11 +1,15 @@
 package com.system;
 
+import com.system.kripkestructure.BooleanVariable;
 import com.system.kripkestructure.IntegerVariable;
+import com.system.kripkestructure.RangedIntegerVariable;
 import com.system.kripkestructure.Variable;
 import com.system.util.SingleLogger;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
@@ -22,11 +26,20 @@ class ProgramTaker {
     private static final String CLOSE_BRACKET_TO_REPLACE = ";\\};";
     private static final String WHITESPACES_TO_REMOVE = "[^\\S ]";
     private static final String INTEGER_VARIABLE = "^int +[a-zA-Z]\\w*$";
+    private static final Pattern SIZED_INTEGER_VARIABLE = 
+            Pattern.compile("^int(\\d+) +([a-zA-Z]\\w*)$");
+    private static final Pattern RANGED_INTEGER_VARIABLE = 
+            Pattern.compile("^int *\\[ *(-?\\d+) *\\.\\. *(-?\\d+) *\\] *([a-zA-Z]\\w*)$");
+    private static final Pattern BOOLEAN_VARIABLE = 
+            Pattern.compile("^bool +([a-zA-Z]\\w*)$");
     private static final String IF = "if";
     private static final String WHILE = "while";
     private static final String INT = "int";
     private static final String ELSE = "else";
     private static final String READ = "read";
+    private static final String BOOL = "bool";
+    private static final String TRUE = "true";
+    private static final String FALSE = "false";
     private String program;
     private List<String> operators;
     private List<Variable> variables;
@@ -54,17 +67,28 @@ class ProgramTaker {
         String[] splitedProgram = modifiedProgram.split(SEMICOLON);
         for (int i = 0; i < splitedProgram.length; i++) {
             splitedProgram[i] = splitedProgram[i].trim();
-            if (splitedProgram[i].matches(INTEGER_VARIABLE)) {
-                String variableName = splitedProgram[i].substring(3).trim();
+            Variable variable;
+            try {
+                variable = takeVariable(splitedProgram[i]);
+            }
+            catch (IllegalArgumentException ex) {
+                logger.log(Level.ERROR, "Bad declaration " + splitedProgram[i]);
+                operators = null;
+                variables = null;
+                break;
+            }
+            if (variable != null) {
+                String variableName = variable.getName();
                 if (variableName.equals(IF) || variableName.equals(ELSE) ||
                         variableName.equals(WHILE) || variableName.equals(READ) ||
-                        variableName.equals(INT)) {
+                        variableName.equals(INT) || variableName.equals(BOOL) ||
+                        variableName.equals(TRUE) || variableName.equals(FALSE)) {
                     logger.log(Level.ERROR, "Forbidden name of variable" + variableName);
                     operators = null;
                     variables = null;
                     break;
                 }
-                variables.add(new IntegerVariable(variableName));
+                variables.add(variable);
             }
             else {
                 operators.add(splitedProgram[i].replaceAll(WHITESPACES_TO_REMOVE, "").trim());
@@ -73,6 +97,31 @@ class ProgramTaker {
         return operators;
     }
     
+    /*
+     * Returns null if the statement is not a declaration.
+     */
+    private Variable takeVariable(String statement) {
+        if (statement.matches(INTEGER_VARIABLE)) {
+            return new IntegerVariable(statement.substring(3).trim());
+        }
+        Matcher matcher = SIZED_INTEGER_VARIABLE.matcher(statement);
+        if (matcher.matches()) {
+            return new IntegerVariable(matcher.group(2), 
+                    Integer.parseInt(matcher.group(1)));
+        }
+        matcher = RANGED_INTEGER_VARIABLE.matcher(statement);
+        if (matcher.matches()) {
+            return new RangedIntegerVariable(matcher.group(3), 
+                    Integer.parseInt(matcher.group(1)), 
+                    Integer.parseInt(matcher.group(2)));
+        }
+        matcher = BOOLEAN_VARIABLE.matcher(statement);
+        if (matcher.matches()) {
+            return new BooleanVariable(matcher.group(1));
+        }
+        return null;
+    }
+    
     public List<Variable> getProgramVariables() {
         if (operators == null) {
             splitProgram();
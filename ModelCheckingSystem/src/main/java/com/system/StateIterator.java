@@ -0,0 +1,217 @@
+package com.system;
+
+import com.system.kripkestructure.Variable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import net.sf.javabdd.BDD;
+
+/**
+ * Iterates over states of a BDD walking it directly: paths to the ONE node
+ * are followed one by one, and bits a path doesn't depend on take all their
+ * values. Only the current path is kept, so memory doesn't depend
+ * on the number of states. The BDD is expected to depend on state
+ * variables only; other variables are passed through, which may give
+ * a state more than once.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class StateIterator implements Iterator<String> {
+
+    static final String EQUATION = "=";
+    static final String COMMA_SPACE = ", ";
+
+    private final List<Variable> variables;
+    private final int[] positions;
+    private final byte[] bits;
+    private final Deque<Frame> path;
+    private int[] freePositions;
+    private String nextState;
+
+    /**
+     *
+     * @param statesBDD BDD representing states.
+     * @param variables List of program variables.
+     * @param stateVariables BDD variable of each bit of the state, in order
+     * of the variables, the most significant bit first; null means BDD
+     * variables go in this order.
+     */
+    public StateIterator(BDD statesBDD, List<Variable> variables, int[] stateVariables) {
+        this.variables = variables;
+        int numberOfBits = 0;
+        for (Variable variable : variables) {
+            numberOfBits += variable.getSize();
+        }
+        bits = new byte[numberOfBits];
+        positions = new int[statesBDD.getFactory().varNum()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = -1;
+        }
+        for (int i = 0; i < numberOfBits; i++) {
+            positions[stateVariables == null ? i : stateVariables[i]] = i;
+        }
+        for (int i = 0; i < numberOfBits; i++) {
+            bits[i] = -1;
+        }
+        path = new ArrayDeque<>();
+        path.push(new Frame(statesBDD.id()));
+        nextState = findNext();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextState != null;
+    }
+
+    @Override
+    public String next() {
+        if (nextState == null) {
+            throw new NoSuchElementException();
+        }
+        String state = nextState;
+        nextState = findNext();
+        return state;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /*
+     * Goes on with free bits of the last path, if they have values left,
+     * otherwise looks for the next path to the ONE node.
+     */
+    private String findNext() {
+        if (freePositions != null && nextCombination()) {
+            return buildState(variables, bits);
+        }
+        freePositions = null;
+        while (!path.isEmpty()) {
+            Frame frame = path.peek();
+            if (frame.node.isOne()) {
+                path.pop();
+                frame.free();
+                startCombinations();
+                return buildState(variables, bits);
+            }
+            if (frame.node.isZero() || frame.branch > 1) {
+                path.pop();
+                frame.free();
+                continue;
+            }
+            if (frame.position >= 0) {
+                bits[frame.position] = (byte) frame.branch;
+            }
+            BDD child = frame.branch == 0 ? frame.node.low() : frame.node.high();
+            frame.branch++;
+            path.push(new Frame(child));
+        }
+        return null;
+    }
+
+    private void startCombinations() {
+        int number = 0;
+        for (byte bit : bits) {
+            if (bit == -1) {
+                number++;
+            }
+        }
+        freePositions = new int[number];
+        number = 0;
+        for (int i = 0; i < bits.length; i++) {
+            if (bits[i] == -1) {
+                freePositions[number++] = i;
+                bits[i] = 0;
+            }
+        }
+    }
+
+    /*
+     * Free bits are counted up as a binary number; when it overflows they
+     * are free again.
+     */
+    private boolean nextCombination() {
+        for (int i = freePositions.length - 1; i >= 0; i--) {
+            if (bits[freePositions[i]] == 0) {
+                bits[freePositions[i]] = 1;
+                return true;
+            }
+            bits[freePositions[i]] = 0;
+        }
+        for (int position : freePositions) {
+            bits[position] = -1;
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param variables List of program variables.
+     * @param bits Value of each bit of the state, in order of the variables,
+     * the most significant bit first.
+     * @return State in the form "name=value, name=value...".
+     */
+    static String buildState(List<Variable> variables, byte[] bits) {
+        StringBuilder state = new StringBuilder();
+        int position = 0;
+        for (Variable variable : variables) {
+            int offset = 0;
+            for (int i = 0; i < variable.getSize(); i++) {
+                offset = (offset << 1) | bits[position++];
+            }
+            if (state.length() > 0) {
+                state.append(COMMA_SPACE);
+            }
+            state.append(variable.getName()).append(EQUATION)
+                    .append(getValueString(offset, variable));
+        }
+        return state.toString();
+    }
+
+    /**
+     *
+     * @param offset Value encoded as the offset from the least value
+     * of the variable.
+     * @param variable The variable.
+     * @return Value of the variable as it's shown in states.
+     */
+    static String getValueString(int offset, Variable variable) {
+        switch (variable.getType()) {
+            case BOOLEAN:
+                return Boolean.toString(offset != 0);
+
+            case INTEGER:
+            case PC:
+                return Integer.toString(variable.getMinValue() + offset);
+
+            default:
+                return null;
+        }
+    }
+
+    /*
+     * Node of the current path and the branch to follow next; the bit
+     * the node fixes is free again once both branches are done.
+     */
+    private class Frame {
+
+        private final BDD node;
+        private final int position;
+        private int branch;
+
+        public Frame(BDD node) {
+            this.node = node;
+            position = node.isZero() || node.isOne() ? -1 : positions[node.var()];
+        }
+
+        public void free() {
+            node.free();
+            if (position >= 0) {
+                bits[position] = -1;
+            }
+        }
+    }
+}
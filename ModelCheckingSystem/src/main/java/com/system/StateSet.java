@@ -0,0 +1,370 @@
+package com.system;
+
+import com.system.kripkestructure.Variable;
+import com.system.kripkestructure.VariableType;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * Set of states given by a BDD, answering questions about it in time
+ * proportional to the size of the BDD: states are counted for each node once,
+ * walking from the bottom, and a sample is taken by its number among all
+ * states, going down from the root. Encodings out of the range of ranged
+ * <i>int</i> variables are left out of the set.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class StateSet {
+
+
+    private final BDDFactory factory;
+    private final List<Variable> variables;
+    private final int[] stateVariables;
+    private final BDD statesBDD;
+    private final int[] ranks;
+    private final int[] positionRanks;
+    private final int[] positions;
+    private final int numberOfBits;
+    private Map<BDD, BigInteger> counts;
+
+    /**
+     *
+     * @param statesBDD BDD over state variables representing the states.
+     * @param variables List of program variables.
+     * @param stateVariables BDD variable of each bit of the state, in order
+     * of the variables, the most significant bit first; null means BDD
+     * variables go in this order.
+     */
+    public StateSet(BDD statesBDD, List<Variable> variables, int[] stateVariables) {
+        factory = statesBDD.getFactory();
+        this.variables = variables;
+        int bits = 0;
+        for (Variable variable : variables) {
+            bits += variable.getSize();
+        }
+        numberOfBits = bits;
+        if (stateVariables == null) {
+            stateVariables = new int[numberOfBits];
+            for (int i = 0; i < numberOfBits; i++) {
+                stateVariables[i] = i;
+            }
+        }
+        this.stateVariables = stateVariables;
+        positions = new int[factory.varNum()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < numberOfBits; i++) {
+            positions[stateVariables[i]] = i;
+        }
+        ranks = buildRanks();
+        positionRanks = new int[numberOfBits];
+        for (int rank = 0; rank < numberOfBits; rank++) {
+            positionRanks[ranks[rank]] = rank;
+        }
+        BDD domainBDD = buildDomainBDD();
+        this.statesBDD = statesBDD.and(domainBDD);
+        domainBDD.free();
+    }
+
+    /**
+     *
+     * @return BDD of the states; encodings out of range are left out of it.
+     */
+    public BDD getStatesBDD() {
+        return statesBDD;
+    }
+
+    /**
+     *
+     * @return Exact number of states.
+     */
+    public BigInteger count() {
+        return count(statesBDD).shiftLeft(getRank(statesBDD));
+    }
+
+    /**
+     *
+     * @return Number of states at each location of the program; locations
+     * without states are left out.
+     */
+    public Map<Integer, BigInteger> countByPC() {
+        Map<Integer, BigInteger> result = new TreeMap<>();
+        Variable pcVariable = variables.get(0);
+        if (pcVariable.getType() != VariableType.PC) {
+            throw new IllegalArgumentException();
+        }
+        int size = pcVariable.getSize();
+        BDD nonPCBits = factory.makeSet(Arrays.copyOfRange(stateVariables, size,
+                numberOfBits));
+        BDD locationsBDD = statesBDD.exist(nonPCBits);
+        nonPCBits.free();
+        for (int pc = 0; pc <= pcVariable.getMaxValue(); pc++) {
+            BDD pcBDD = factory.one();
+            for (int i = 0; i < size; i++) {
+                boolean isSet = ((pc >> (size - 1 - i)) & 1) == 1;
+                pcBDD.andWith(isSet ? factory.ithVar(stateVariables[i])
+                        : factory.nithVar(stateVariables[i]));
+            }
+            BDD locationBDD = locationsBDD.and(pcBDD);
+            if (!locationBDD.isZero()) {
+                BDD pcStatesBDD = statesBDD.restrict(pcBDD);
+                // the PC bits are gone from the restricted BDD
+                result.put(pc, count(pcStatesBDD).shiftLeft(getRank(pcStatesBDD))
+                        .shiftRight(size));
+                pcStatesBDD.free();
+            }
+            locationBDD.free();
+            pcBDD.free();
+        }
+        locationsBDD.free();
+        return result;
+    }
+
+    /**
+     * Every state has the same chance to be taken.
+     *
+     * @param random Source of random numbers.
+     * @return Randomly taken state, in the same form as counterexamples;
+     * null if the set is empty.
+     */
+    public String sample(Random random) {
+        BigInteger total = count();
+        if (total.signum() == 0) {
+            return null;
+        }
+        BigInteger number;
+        do {
+            number = new BigInteger(total.bitLength(), random);
+        }
+        while (number.compareTo(total) >= 0);
+        return getState(number);
+    }
+
+    /**
+     *
+     * @param state State in the same form as counterexamples, like
+     * "pc=3, f=true, k=1"; all variables must be given.
+     * @return True if the state belongs to the set.
+     * @throws IllegalArgumentException if the state is bad-written or
+     * a value is out of range of its variable.
+     */
+    public boolean contains(String state) throws IllegalArgumentException {
+        byte[] bits = parseState(state);
+        BDD node = statesBDD.id();
+        while (!node.isZero() && !node.isOne()) {
+            int position = positions[node.var()];
+            BDD child = bits[position] == 1 ? node.high() : node.low();
+            node.free();
+            node = child;
+        }
+        boolean result = node.isOne();
+        node.free();
+        return result;
+    }
+
+    /**
+     * Frees BDDs held by the set.
+     */
+    public void free() {
+        clearCounts();
+        statesBDD.free();
+    }
+
+    /*
+     * Number of assignments to the state bits from the level of the node
+     * down, memorized for each node.
+     */
+    private BigInteger count(BDD node) {
+        if (node.isZero()) {
+            return BigInteger.ZERO;
+        }
+        if (node.isOne()) {
+            return BigInteger.ONE;
+        }
+        if (counts == null) {
+            counts = new HashMap<>();
+        }
+        BigInteger result = counts.get(node);
+        if (result != null) {
+            return result;
+        }
+        int rank = getRank(node);
+        BDD low = node.low();
+        BDD high = node.high();
+        result = count(low).shiftLeft(getRank(low) - rank - 1)
+                .add(count(high).shiftLeft(getRank(high) - rank - 1));
+        low.free();
+        high.free();
+        counts.put(node.id(), result);
+        return result;
+    }
+
+    /*
+     * Goes down from the root choosing the branch, which states the number
+     * falls on; bits skipped between levels take the high digits
+     * of the number within the subgraph.
+     */
+    private String getState(BigInteger number) {
+        byte[] bits = new byte[numberOfBits];
+        BDD node = statesBDD.id();
+        int previousRank = -1;
+        while (true) {
+            int rank = getRank(node);
+            BigInteger nodeCount = count(node);
+            BigInteger[] division = number.divideAndRemainder(nodeCount);
+            setSkippedBits(bits, previousRank + 1, rank, division[0]);
+            number = division[1];
+            if (node.isOne()) {
+                node.free();
+                return StateIterator.buildState(variables, bits);
+            }
+            BDD low = node.low();
+            BigInteger lowCount = count(low).shiftLeft(getRank(low) - rank - 1);
+            BDD child;
+            if (number.compareTo(lowCount) < 0) {
+                bits[positions[node.var()]] = 0;
+                child = low;
+            }
+            else {
+                number = number.subtract(lowCount);
+                bits[positions[node.var()]] = 1;
+                low.free();
+                child = node.high();
+            }
+            node.free();
+            node = child;
+            previousRank = rank;
+        }
+    }
+
+    private void setSkippedBits(byte[] bits, int fromRank, int toRank, BigInteger value) {
+        for (int rank = toRank - 1; rank >= fromRank; rank--) {
+            bits[ranks[rank]] = (byte) (value.testBit(toRank - 1 - rank) ? 1 : 0);
+        }
+    }
+
+    private byte[] parseState(String state) throws IllegalArgumentException {
+        Map<String, String> values = new HashMap<>();
+        for (String assignment : state.split(StateIterator.COMMA_SPACE)) {
+            String[] parts = assignment.trim().split(StateIterator.EQUATION);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            values.put(parts[0].trim(), parts[1].trim());
+        }
+        byte[] bits = new byte[numberOfBits];
+        int position = 0;
+        for (Variable variable : variables) {
+            String value = values.get(variable.getName());
+            if (value == null) {
+                throw new IllegalArgumentException();
+            }
+            int offset = getOffset(value, variable);
+            for (int i = variable.getSize() - 1; i >= 0; i--) {
+                bits[position++] = (byte) ((offset >> i) & 1);
+            }
+        }
+        return bits;
+    }
+
+    private int getOffset(String value, Variable variable) throws IllegalArgumentException {
+        int number;
+        if (variable.getType() == VariableType.BOOLEAN) {
+            if (!value.equals("true") && !value.equals("false")) {
+                throw new IllegalArgumentException();
+            }
+            number = value.equals("true") ? 1 : 0;
+        }
+        else {
+            number = Integer.parseInt(value);
+        }
+        if (number < variable.getMinValue() || number > variable.getMaxValue()) {
+            throw new IllegalArgumentException();
+        }
+        return number - variable.getMinValue();
+    }
+
+    /*
+     * Offsets of ranged variables are at most the width of the range.
+     */
+    private BDD buildDomainBDD() {
+        BDD domainBDD = factory.one();
+        int position = 0;
+        for (Variable variable : variables) {
+            int size = variable.getSize();
+            int maxOffset = variable.getMaxValue() - variable.getMinValue();
+            if (variable.getType() == VariableType.INTEGER && maxOffset < (1 << size) - 1) {
+                domainBDD.andWith(buildLessOrEqualBDD(position, size, maxOffset));
+            }
+            position += size;
+        }
+        return domainBDD;
+    }
+
+    private BDD buildLessOrEqualBDD(int position, int size, int bound) {
+        BDD result = factory.one();
+        for (int i = size - 1; i >= 0; i--) {
+            BDD bitBDD = factory.ithVar(stateVariables[position + i]);
+            if (((bound >> (size - 1 - i)) & 1) == 1) {
+                result = bitBDD.not().orWith(result);
+            }
+            else {
+                result = bitBDD.not().andWith(result);
+            }
+            bitBDD.free();
+        }
+        return result;
+    }
+
+    /*
+     * Rank of a state bit is the place of its BDD variable in the current
+     * order of state bits; terminal nodes are below all of them.
+     */
+    private int[] buildRanks() {
+        Integer[] order = new Integer[numberOfBits];
+        for (int i = 0; i < numberOfBits; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return factory.var2Level(stateVariables[first])
+                        - factory.var2Level(stateVariables[second]);
+            }
+        });
+        int[] result = new int[numberOfBits];
+        for (int i = 0; i < numberOfBits; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    private int getRank(BDD node) {
+        if (node.isZero() || node.isOne()) {
+            return numberOfBits;
+        }
+        int position = positions[node.var()];
+        if (position == -1) {
+            // the BDD depends on a variable which isn't a state bit
+            throw new IllegalArgumentException();
+        }
+        return positionRanks[position];
+    }
+
+    private void clearCounts() {
+        if (counts == null) {
+            return;
+        }
+        for (BDD node : counts.keySet()) {
+            node.free();
+        }
+        counts = null;
+    }
+}
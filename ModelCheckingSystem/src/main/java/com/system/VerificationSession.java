@@ -0,0 +1,334 @@
+package com.system;
+
+import com.system.kripkestructure.AtomicPredicate;
+import com.system.kripkestructure.KripkeStructureTranslator;
+import com.system.kripkestructure.ProgramCounterVariable;
+import com.system.kripkestructure.Variable;
+import com.system.kripkestructure.VariableOrdering;
+import com.system.temporallogic.CTLFormulaTable;
+import com.system.temporallogic.CTLTranslator;
+import com.system.temporallogic.InvariantChecker;
+import com.system.temporallogic.Trace;
+import com.system.temporallogic.TransitionRelation;
+import com.system.util.SingleLogger;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Translates a program into a Kripke structure once and checks any number
+ * of CTL formulas against it; atomic predicates can be added at any time,
+ * and subformulas common to several formulas are translated once.
+ * BDDs of all sessions belong to the single BDD factory, so only one
+ * session should be open at a time.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class VerificationSession {
+
+    private final String program;
+    private VariableOrdering variableOrdering = VariableOrdering.INTERLEAVED;
+    private BDDFactory.ReorderMethod reorderMethod = BDDFactory.REORDER_NONE;
+    private BDDFactory.ReorderMethod afterTranslationReorderMethod =
+            BDDFactory.REORDER_NONE;
+    private boolean isRestrictedToReachableStates = false;
+    private boolean isSymbolicInputs = true;
+
+    private final List<AtomicPredicate> atomicPredicates;
+    private List<BDD> atomicPredicatesBDD;
+    private KripkeStructureTranslator structureTranslator;
+    private TransitionRelation transitionRelation;
+    private CTLFormulaTable formulaTable;
+    private BDD reachableStatesBDD;
+    private List<Variable> variables;
+    private boolean isOpen = false;
+
+    private static Logger logger;
+
+    static {
+        logger = SingleLogger.getLogger();
+    }
+
+    /**
+     *
+     * @param program String representing a program, as described
+     * in Controller.setProgram.
+     */
+    public VerificationSession(String program) {
+        if (program == null) {
+            throw new NullPointerException();
+        }
+        if (program.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        this.program = program;
+        atomicPredicates = new ArrayList<>();
+    }
+
+    /**
+     *
+     * @param variableOrdering Initial order of BDD variables; INTERLEAVED
+     * by default. It takes effect if it's set before the session is opened.
+     */
+    public void setVariableOrdering(VariableOrdering variableOrdering) {
+        if (variableOrdering == null) {
+            throw new NullPointerException();
+        }
+        this.variableOrdering = variableOrdering;
+    }
+
+    /**
+     *
+     * @param reorderMethod Method of automatic reordering of BDD variables
+     * (like BDDFactory.REORDER_SIFT); REORDER_NONE by default. It takes
+     * effect if it's set before the session is opened.
+     */
+    public void setReorderMethod(BDDFactory.ReorderMethod reorderMethod) {
+        if (reorderMethod == null) {
+            throw new NullPointerException();
+        }
+        this.reorderMethod = reorderMethod;
+    }
+
+    /**
+     *
+     * @param reorderMethod Method of reordering of BDD variables applied once
+     * the Kripke structure is translated; REORDER_NONE by default. It takes
+     * effect if it's set before the session is opened.
+     */
+    public void setReorderAfterTranslation(BDDFactory.ReorderMethod reorderMethod) {
+        if (reorderMethod == null) {
+            throw new NullPointerException();
+        }
+        this.afterTranslationReorderMethod = reorderMethod;
+    }
+
+    /**
+     *
+     * @param isRestricted If it's true, states reachable from the start
+     * states are found when the session is opened, and formulas are evaluated
+     * on them only; false by default. It takes effect if it's set before
+     * the session is opened.
+     */
+    public void setRestrictToReachableStates(boolean isRestricted) {
+        this.isRestrictedToReachableStates = isRestricted;
+    }
+
+    /**
+     *
+     * @param isSymbolic If it's true, values given by read aren't enumerated;
+     * conditions and assignments using them are translated into BDDs built
+     * by bit-vector arithmetic instead (see
+     * KripkeStructureTranslator.setSymbolicInputs); true by default, false
+     * enumerates them as a fallback. It takes effect if it's set before
+     * the session is opened.
+     */
+    public void setSymbolicInputs(boolean isSymbolic) {
+        this.isSymbolicInputs = isSymbolic;
+    }
+
+    /**
+     * Predicates added before the session is opened are translated together
+     * with the program; ones added later are translated at once.
+     *
+     * @param condition Atomic predicate, as described in
+     * Controller.setAtomicPredicates.
+     * @return Number of the predicate to use in CTL formulas; -1 if the
+     * predicate can't be translated.
+     */
+    public int addAtomicPredicate(String condition) {
+        if (condition == null) {
+            throw new NullPointerException();
+        }
+        if (condition.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        AtomicPredicate predicate = new AtomicPredicate(condition);
+        if (!isOpen) {
+            atomicPredicates.add(predicate);
+            return atomicPredicates.size() - 1;
+        }
+        if (!structureTranslator.addAtomicPredicates(Collections.singletonList(predicate))) {
+            logger.log(Level.ERROR, "Predicate " + condition + " is not added");
+            return -1;
+        }
+        return atomicPredicatesBDD.size() - 1;
+    }
+
+    /**
+     *
+     * @return Number of atomic predicates added to the session.
+     */
+    public int getAtomicPredicatesNumber() {
+        return isOpen ? atomicPredicatesBDD.size() : atomicPredicates.size();
+    }
+
+    /**
+     * Translates the program into the Kripke structure; it's done once,
+     * other calls do nothing.
+     *
+     * @return True if the session is open; false if the program or one
+     * of the atomic predicates can't be translated (then see logs for details).
+     */
+    public boolean open() {
+        if (isOpen) {
+            return true;
+        }
+        ProgramTaker programTaker = new ProgramTaker(program);
+        variables = programTaker.getProgramVariables();
+        List<String> operators = programTaker.splitProgram();
+        if (variables == null || operators == null) {
+            return false;
+        }
+        structureTranslator = new KripkeStructureTranslator(operators, variables,
+                atomicPredicates);
+        structureTranslator.setVariableOrdering(variableOrdering);
+        structureTranslator.setReorderMethod(reorderMethod);
+        structureTranslator.setSymbolicInputs(isSymbolicInputs);
+        if (!structureTranslator.tryTranslate()) {
+            structureTranslator = null;
+            return false;
+        }
+        structureTranslator.reorder(afterTranslationReorderMethod);
+        atomicPredicatesBDD = new PredicatesBDDList(
+                structureTranslator.getAtomicPredicates());
+        transitionRelation = new TransitionRelation(BDDSingleFactory.getInstanse(),
+                structureTranslator.getStatesTransitionPartitions(),
+                structureTranslator.getCurrentStateVariables(),
+                structureTranslator.getNextStateVariables());
+        if (isRestrictedToReachableStates) {
+            reachableStatesBDD = transitionRelation.reachableStates(
+                    structureTranslator.getStartStatesBDD());
+            transitionRelation.simplify(reachableStatesBDD);
+            logger.log(Level.INFO, "Reachable states are found");
+        }
+        formulaTable = new CTLFormulaTable();
+        variables.add(0, new ProgramCounterVariable("pc",
+                structureTranslator.getPCSize()));
+        isOpen = true;
+        logger.log(Level.INFO, "Verification session is open");
+        return true;
+    }
+
+    /**
+     *
+     * @return True if the session has been opened and hasn't been closed.
+     */
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    /**
+     *
+     * @param formula CTL formula to verify; numbers of atomic predicates are
+     * the ones returned by addAtomicPredicate.
+     * @return CTLVerificator instance holding the result; null if the session
+     * isn't open or the formula is bad-written.
+     */
+    public CTLVerificator check(String formula) {
+        if (formula == null) {
+            throw new NullPointerException();
+        }
+        if (!isOpen || atomicPredicatesBDD.isEmpty()) {
+            return null;
+        }
+        try {
+            CTLTranslator translator = new CTLTranslator(formula);
+            translator.setAtomicPredicates(atomicPredicatesBDD);
+            translator.setStateVariables(structureTranslator.getCurrentStateVariables(),
+                    structureTranslator.getNextStateVariables());
+            translator.setTransitionRelation(transitionRelation);
+            translator.setFormulaTable(formulaTable);
+            translator.setCareSet(reachableStatesBDD);
+            CTLVerificator verificator = new CTLVerificator();
+            if (translator.isInvariant()) {
+                checkInvariant(translator.getInvariantViolationBDD(), verificator);
+            }
+            else {
+                // the result is owned by the formula table, which close() clears
+                verificator.setPropertyBDD(translator.getBDDResult().id());
+                BDD startStates = structureTranslator.getStartStatesBDD();
+                verificator.setCounterexampleTrace(
+                        translator.getCounterexampleTrace(startStates));
+                verificator.setWitnessTrace(translator.getWitnessTrace(startStates));
+            }
+            verificator.setStartStatesBDD(structureTranslator.getStartStatesBDD());
+            verificator.setVariables(variables);
+            verificator.setStateVariables(structureTranslator.getCurrentStateVariables());
+            return verificator;
+        }
+        catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /*
+     * Invariants AG p are decided by forward search, which stops as soon 
+     * as a state violating p is reached; only then the states violating 
+     * the invariant are found by backward search, so the verificator 
+     * reports all the counterexamples, as for any other formula.
+     */
+    private void checkInvariant(BDD badStates, CTLVerificator verificator) {
+        logger.log(Level.INFO, "Checking the invariant by forward search");
+        InvariantChecker checker = new InvariantChecker(BDDSingleFactory.getInstanse(),
+                transitionRelation, structureTranslator.getStartStatesBDD(), badStates,
+                structureTranslator.getCurrentStateVariables());
+        BDD violatingStates = checker.getViolatingStates();
+        verificator.setPropertyBDD(violatingStates.not());
+        verificator.setCounterexampleTrace(
+                new Trace(checker.getShortestCounterexample(), -1));
+        violatingStates.free();
+        checker.free();
+        logger.log(Level.INFO, "Invariant is checked");
+    }
+
+    /**
+     * Frees the transition relation and translated formulas; the session
+     * can't be used after that.
+     */
+    public void close() {
+        if (!isOpen) {
+            return;
+        }
+        transitionRelation.free();
+        formulaTable.clearResults();
+        if (reachableStatesBDD != null) {
+            reachableStatesBDD.free();
+            reachableStatesBDD = null;
+        }
+        transitionRelation = null;
+        formulaTable = null;
+        atomicPredicatesBDD = null;
+        structureTranslator = null;
+        isOpen = false;
+    }
+
+    /*
+     * BDDs of atomic predicates, each of them translated when a formula
+     * takes it for the first time; the list grows with the list
+     * of predicates of the translator.
+     */
+    private static class PredicatesBDDList extends AbstractList<BDD> {
+
+        private final List<AtomicPredicate> atomicPredicates;
+
+        PredicatesBDDList(List<AtomicPredicate> atomicPredicates) {
+            this.atomicPredicates = atomicPredicates;
+        }
+
+        @Override
+        public BDD get(int index) {
+            return atomicPredicates.get(index).getPredicateBDD();
+        }
+
+        @Override
+        public int size() {
+            return atomicPredicates.size();
+        }
+    }
+}
@@ -1,13 +1,8 @@
 package com.system.kripkestructure;
 
 import com.system.BDDSingleFactory;
-import com.system.util.SingleLogger;
-import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.Map;
 import net.sf.javabdd.BDD;
-import org.apache.log4j.Level;
-import org.apache.log4j.Logger;
 
 /**
  *
@@ -21,18 +16,8 @@ public class AtomicPredicate {
     private final String condition;
     private BDD predicateBDD;
     private Deque<String> postfixFormula;
-    private int length;
-    private Map<Variable, String> variablesValues;
-    private Map<String, Variable> variablesNames;
-    
-    private static final String TRUE = "true";
-    private static final String FALSE = "false";
-    
-    private static Logger logger;
-    
-    static {
-        logger = SingleLogger.getLogger();
-    }
+    private CompiledExpression compiledFormula;
+    private KripkeStructureTranslator translator;
     
     /**
      *
@@ -45,13 +30,18 @@ public class AtomicPredicate {
     }
     
     /**
+     * The BDD is built by the translator of the Kripke structure when it's 
+     * asked for the first time, so predicates no formula references 
+     * aren't translated.
      *
      * @return BDD representing characteristic function of this atomic predicate 
      * on states of Kripke structure.
      */
     public BDD getPredicateBDD() {
         if (predicateBDD == null) {
-            predicateBDD = BDDSingleFactory.getInstanse().zero();
+            predicateBDD = translator != null ? 
+                    translator.translateAtomicPredicate(this) : 
+                    BDDSingleFactory.getInstanse().zero();
         }
         return predicateBDD;
     }
@@ -76,45 +66,43 @@ public class AtomicPredicate {
     /**
      *
      * @param parser An object of ConditionParser class
+     * @param calculator An object of Calculator class, which compiles 
+     * the condition
      * @return true if predicate if successfully parsed; false otherwise
      */
-    protected boolean toPostfix(ConditionParser parser) {
+    protected boolean toPostfix(ConditionParser parser, Calculator calculator) {
         postfixFormula = parser.parseCondition(condition);
-        return postfixFormula != null;
+        if (postfixFormula == null) {
+            return false;
+        }
+        compiledFormula = calculator.compile(condition, postfixFormula);
+        return true;
     }
     
     /**
      *
-     * @param variablesValues Map where each variable of this atomic predicate
-     * has its appropriate value
-     * @param calculator An object of Calculator class
-     * @return
+     * @return Postfix form of the condition; null if toPostfix hasn't been 
+     * invoked or has failed.
      */
-    protected Boolean calculate(Map<Variable, String> variablesValues, 
-            Calculator calculator) {
-        String value = calculator.calculate(variablesValues, condition, 
-                new ArrayDeque<>(postfixFormula));
-        if (value == null) {
-            return null;
-        }
-        if (value.equals(TRUE)) {
-            return true;
-        }
-        if (value.equals(FALSE)) {
-            return false;
-        }
-        logger.log(Level.ERROR, condition + " is not a condition");
-        return null;
+    protected Deque<String> getPostfixFormula() {
+        return postfixFormula;
     }
     
     /**
      *
-     * @param BDDToAdd A BDD to add to BDD of this atomic predicate.
+     * @return Compiled condition; null if toPostfix hasn't been invoked 
+     * or has failed.
      */
-    protected void addToBDD(BDD BDDToAdd) {
-        if (predicateBDD == null) {
-            predicateBDD = BDDToAdd;
-        }
-        predicateBDD = predicateBDD.or(BDDToAdd);
+    protected CompiledExpression getCompiledFormula() {
+        return compiledFormula;
+    }
+    
+    /**
+     *
+     * @param translator KripkeStructureTranslator that has prepared this 
+     * atomic predicate and translates it into a BDD.
+     */
+    protected void setTranslator(KripkeStructureTranslator translator) {
+        this.translator = translator;
     }
 }
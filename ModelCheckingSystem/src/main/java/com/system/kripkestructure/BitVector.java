@@ -0,0 +1,313 @@
+package com.system.kripkestructure;
+
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * Value of a fixed number of bits, each bit given by a BDD, the least
+ * significant bit first. Arithmetic works as on Java values of the same
+ * width, which wrap around (like <i>short</i> for 16 bits); comparisons are
+ * signed, unless they say otherwise. Operations don't change their operands,
+ * so every resulting vector has to be freed.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class BitVector {
+
+    private final BDDFactory factory;
+    private final BDD[] bits;
+
+    private BitVector(BDDFactory factory, BDD[] bits) {
+        this.factory = factory;
+        this.bits = bits;
+    }
+
+    /**
+     *
+     * @param factory BDDFactory the bits belong to.
+     * @param width Number of bits.
+     * @param value Value; only its lowest width bits are taken.
+     * @return Vector of constant bits.
+     */
+    public static BitVector constant(BDDFactory factory, int width, int value) {
+        BDD[] bits = new BDD[width];
+        for (int i = 0; i < width; i++) {
+            bits[i] = i < Integer.SIZE && ((value >> i) & 1) == 1 ? factory.one()
+                    : factory.zero();
+        }
+        return new BitVector(factory, bits);
+    }
+
+    /**
+     *
+     * @param factory BDDFactory the bits belong to.
+     * @param variables BDD variables, the most significant bit first, as
+     * StateEncoder encodes values.
+     * @return Vector of the variables, taken as an unsigned value.
+     */
+    public static BitVector variables(BDDFactory factory, int[] variables) {
+        BDD[] bits = new BDD[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            bits[i] = factory.ithVar(variables[variables.length - 1 - i]);
+        }
+        return new BitVector(factory, bits);
+    }
+
+    /**
+     *
+     * @param bit BDD of the bit; it is taken by the vector.
+     * @return Vector of the single bit.
+     */
+    public static BitVector bit(BDD bit) {
+        return new BitVector(bit.getFactory(), new BDD[] {bit});
+    }
+
+    /**
+     *
+     * @param condition Condition choosing one of the vectors for each
+     * assignment of variables.
+     * @param thenVector Vector taken where the condition holds.
+     * @param elseVector Vector of the same width taken elsewhere.
+     * @return Vector choosing between the two bit by bit.
+     */
+    public static BitVector select(BDD condition, BitVector thenVector,
+            BitVector elseVector) {
+        BDD[] bits = new BDD[thenVector.bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = condition.ite(thenVector.bits[i], elseVector.bits[i]);
+        }
+        return new BitVector(thenVector.factory, bits);
+    }
+
+    public int getWidth() {
+        return bits.length;
+    }
+
+    /**
+     *
+     * @param position Position of a bit, 0 for the least significant one.
+     * @return The bit; it belongs to the vector, so it mustn't be freed.
+     */
+    public BDD getBit(int position) {
+        return bits[position];
+    }
+
+    /**
+     *
+     * @param width New number of bits.
+     * @param isSigned If it's true, new high bits copy the sign bit, otherwise
+     * they are zero.
+     * @return Vector of the same value (if it fits) of the given width.
+     */
+    public BitVector resize(int width, boolean isSigned) {
+        BDD[] result = new BDD[width];
+        for (int i = 0; i < width; i++) {
+            if (i < bits.length) {
+                result[i] = bits[i].id();
+            }
+            else {
+                result[i] = isSigned ? bits[bits.length - 1].id() : factory.zero();
+            }
+        }
+        return new BitVector(factory, result);
+    }
+
+    public BitVector not() {
+        BDD[] result = new BDD[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            result[i] = bits[i].not();
+        }
+        return new BitVector(factory, result);
+    }
+
+    public BitVector add(BitVector other) {
+        return add(other, factory.zero());
+    }
+
+    public BitVector subtract(BitVector other) {
+        BitVector notOther = other.not();
+        BitVector result = add(notOther, factory.one());
+        notOther.free();
+        return result;
+    }
+
+    public BitVector negate() {
+        BitVector zero = constant(factory, bits.length, 0);
+        BitVector result = zero.subtract(this);
+        zero.free();
+        return result;
+    }
+
+    /*
+     * Shifted copies of the other vector are added up where the bits of this
+     * one are set.
+     */
+    public BitVector multiply(BitVector other) {
+        BitVector result = constant(factory, bits.length, 0);
+        for (int i = 0; i < bits.length; i++) {
+            BDD[] partial = new BDD[bits.length];
+            for (int j = 0; j < bits.length; j++) {
+                partial[j] = j < i ? factory.zero() : other.bits[j - i].and(bits[i]);
+            }
+            BitVector partialVector = new BitVector(factory, partial);
+            BitVector sum = result.add(partialVector);
+            partialVector.free();
+            result.free();
+            result = sum;
+        }
+        return result;
+    }
+
+    /**
+     * Division truncates towards zero, as in Java; division by zero gives zero,
+     * so callers have to exclude a zero divisor themselves (see isZero).
+     *
+     * @param other Divisor.
+     * @return Quotient.
+     */
+    public BitVector divide(BitVector other) {
+        BDD isNegative = bits[bits.length - 1].xor(other.bits[bits.length - 1]);
+        BitVector dividend = abs();
+        BitVector divisor = other.abs();
+        BitVector[] division = dividend.divideUnsigned(divisor);
+        dividend.free();
+        divisor.free();
+        division[1].free();
+        BitVector negatedQuotient = division[0].negate();
+        BitVector quotient = select(isNegative, negatedQuotient, division[0]);
+        isNegative.free();
+        negatedQuotient.free();
+        division[0].free();
+        BDD isDivisorZero = other.isZero();
+        BitVector zero = constant(factory, bits.length, 0);
+        BitVector result = select(isDivisorZero, zero, quotient);
+        isDivisorZero.free();
+        zero.free();
+        quotient.free();
+        return result;
+    }
+
+    /**
+     *
+     * @param other Divisor, taken as an unsigned value; it mustn't be zero.
+     * @return Remainder of the division of unsigned values.
+     */
+    public BitVector remainderUnsigned(BitVector other) {
+        BitVector[] division = divideUnsigned(other);
+        division[0].free();
+        return division[1];
+    }
+
+    public BDD equalTo(BitVector other) {
+        BDD result = factory.one();
+        for (int i = 0; i < bits.length; i++) {
+            result.andWith(bits[i].biimp(other.bits[i]));
+        }
+        return result;
+    }
+
+    public BDD lessThan(BitVector other) {
+        return compare(other, factory.zero(), true);
+    }
+
+    public BDD lessOrEqual(BitVector other) {
+        return compare(other, factory.one(), true);
+    }
+
+    public BDD lessOrEqualUnsigned(BitVector other) {
+        return compare(other, factory.one(), false);
+    }
+
+    public BDD isZero() {
+        BDD result = factory.one();
+        for (BDD bit : bits) {
+            result.andWith(bit.not());
+        }
+        return result;
+    }
+
+    /**
+     * Frees the bits.
+     */
+    public void free() {
+        for (BDD bit : bits) {
+            bit.free();
+        }
+    }
+
+    /*
+     * Ripple-carry adder; the carry into the lowest bit is consumed.
+     */
+    private BitVector add(BitVector other, BDD carry) {
+        BDD[] result = new BDD[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            BDD sum = bits[i].xor(other.bits[i]);
+            result[i] = sum.xor(carry);
+            if (i < bits.length - 1) {
+                BDD generated = bits[i].and(other.bits[i]);
+                BDD propagated = sum.and(carry);
+                carry.free();
+                carry = generated.orWith(propagated);
+            }
+            sum.free();
+        }
+        carry.free();
+        return new BitVector(factory, result);
+    }
+
+    /*
+     * Bits are compared from the least significant one up, each of them
+     * deciding unless it's equal in both vectors; the sign bit is set
+     * for the less of signed values.
+     */
+    private BDD compare(BitVector other, BDD ifEqual, boolean isSigned) {
+        BDD result = ifEqual;
+        for (int i = 0; i < bits.length; i++) {
+            boolean isSignBit = isSigned && i == bits.length - 1;
+            BDD less = isSignBit ? bits[i].and(other.bits[i].not())
+                    : bits[i].not().andWith(other.bits[i].id());
+            BDD equal = bits[i].biimp(other.bits[i]);
+            result = less.orWith(equal.andWith(result));
+        }
+        return result;
+    }
+
+    private BitVector abs() {
+        BitVector negated = negate();
+        BitVector result = select(bits[bits.length - 1], negated, this);
+        negated.free();
+        return result;
+    }
+
+    /*
+     * Restoring division: bits of the dividend are brought down into
+     * the remainder one by one from the most significant one, and the divisor
+     * is subtracted wherever it fits. The remainder has a bit more than
+     * the divisor, so shifting it never overflows.
+     */
+    private BitVector[] divideUnsigned(BitVector other) {
+        int width = bits.length;
+        BitVector divisor = other.resize(width + 1, false);
+        BitVector remainder = constant(factory, width + 1, 0);
+        BDD[] quotient = new BDD[width];
+        for (int i = width - 1; i >= 0; i--) {
+            BDD[] shifted = new BDD[width + 1];
+            shifted[0] = bits[i].id();
+            for (int j = 1; j <= width; j++) {
+                shifted[j] = remainder.bits[j - 1].id();
+            }
+            remainder.free();
+            BitVector shiftedVector = new BitVector(factory, shifted);
+            BDD fits = divisor.lessOrEqualUnsigned(shiftedVector);
+            BitVector difference = shiftedVector.subtract(divisor);
+            remainder = select(fits, difference, shiftedVector);
+            difference.free();
+            shiftedVector.free();
+            quotient[i] = fits;
+        }
+        divisor.free();
+        BitVector result = remainder.resize(width, false);
+        remainder.free();
+        return new BitVector[] {new BitVector(factory, quotient), result};
+    }
+}
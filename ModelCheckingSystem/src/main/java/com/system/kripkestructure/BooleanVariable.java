@@ -0,0 +1,78 @@
+package com.system.kripkestructure;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class BooleanVariable implements Variable {
+    
+    private final String name;
+    private static final VariableType TYPE = VariableType.BOOLEAN;
+    private static final int SIZE = 1;
+    
+    /**
+     *
+     * @param name A name of this BooleanVariable.
+     */
+    public BooleanVariable(String name) {
+        this.name = name;
+    }
+
+    /**
+     *
+     * @return A name of this BooleanVariable.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     *
+     * @return VariableType.BOOLEAN
+     */
+    @Override
+    public VariableType getType() {
+        return TYPE;
+    }
+    
+    /**
+     *
+     * @return Number of bits for variable of <i>bool</i> type; it's 1.
+     */
+    @Override
+    public int getSize() {
+        return SIZE;
+    }
+    
+    /**
+     *
+     * @return 0, which stands for false.
+     */
+    @Override
+    public int getMinValue() {
+        return 0;
+    }
+    
+    /**
+     *
+     * @return 1, which stands for true.
+     */
+    @Override
+    public int getMaxValue() {
+        return 1;
+    }
+    
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+    
+    @Override
+    public boolean equals(Object another) {
+        if (another == null || !(another instanceof BooleanVariable)) {
+            return false;
+        }
+        return name.equals(((BooleanVariable)another).getName());
+    }
+}
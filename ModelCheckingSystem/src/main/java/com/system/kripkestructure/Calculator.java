@@ -1,24 +1,34 @@
 package com.system.kripkestructure;
 
+import com.system.kripkestructure.CompiledExpression.BinaryNode;
+import com.system.kripkestructure.CompiledExpression.ConstantNode;
+import com.system.kripkestructure.CompiledExpression.NegationNode;
+import com.system.kripkestructure.CompiledExpression.Node;
+import com.system.kripkestructure.CompiledExpression.VariableNode;
 import com.system.util.SingleLogger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.EmptyStackException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.Stack;
+import java.util.regex.Pattern;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
 /**
+ * Compiles conditions and expressions from their postfix form into trees
+ * of typed nodes (see CompiledExpression), so they are parsed once and then
+ * evaluated over states as many times as needed.
  *
  * @author Alexander Erin <arcquim@gmail.com>
  */
 class Calculator {
-    
-    private Map<Variable, String> variablesValues;
-    private Map<String, Variable> variablesNames;
-    
+
+    private final List<Variable> variables;
+    private final Map<String, Integer> variablesIndexes;
+
     private static final String EQUAL = "==";
     private static final String GREATER = ">";
     private static final String GREATER_EQUAL = ">=";
@@ -35,288 +45,259 @@ class Calculator {
     private static final String UNARY_MINUS = "U-";
     private static final String TRUE = "true";
     private static final String FALSE = "false";
-    private static final String INTEGER = "^\\-?\\d+$";
-    
+    private static final Pattern INTEGER = Pattern.compile("^\\-?\\d+$");
+
     private static Logger logger;
-    
+
     static {
         logger = SingleLogger.getLogger();
     }
-    
-    public String calculate(Map<Variable, String> variablesValuesMap, 
+
+    public Calculator() {
+        this(Collections.<Variable>emptyList());
+    }
+
+    /**
+     *
+     * @param variables List of program variables; formulas refer to them
+     * by their indexes in this list.
+     */
+    public Calculator(List<Variable> variables) {
+        this.variables = variables;
+        variablesIndexes = getIndexes(variables);
+    }
+
+    /**
+     *
+     * @param infixFormula The formula for logging.
+     * @param postfixFormula The formula in postfix form; it isn't changed.
+     * @return Compiled formula; if it can't be calculated, this is reported
+     * when it is evaluated.
+     */
+    public CompiledExpression compile(String infixFormula, Deque<String> postfixFormula) {
+        return compile(infixFormula, postfixFormula, variables, variablesIndexes);
+    }
+
+    /**
+     *
+     * @param variablesValuesMap Values of variables used in the formula.
+     * @param infixFormula The formula for logging.
+     * @param postfixFormula The formula in postfix form; it is consumed.
+     * @param variable A variable the value of the formula is assigned to.
+     * @return Value of the formula wrapped around into the range of variable
+     * (so arithmetic of <i>intN</i> works in N bits); null if the formula
+     * can't be calculated or its type doesn't match the type of variable.
+     */
+    public String calculate(Map<Variable, String> variablesValuesMap,
+            String infixFormula, Deque<String> postfixFormula, Variable variable) {
+        return calculateOnce(variablesValuesMap, infixFormula, postfixFormula, variable);
+    }
+
+    public String calculate(Map<Variable, String> variablesValuesMap,
             String infixFormula, Deque<String> postfixFormula) {
-        if (postfixFormula == null || postfixFormula.isEmpty()) {
+        return calculateOnce(variablesValuesMap, infixFormula, postfixFormula, null);
+    }
+
+    /*
+     * Compiles the formula over the variables of the map and evaluates it once.
+     */
+    private String calculateOnce(Map<Variable, String> variablesValuesMap,
+            String infixFormula, Deque<String> postfixFormula, Variable variable) {
+        List<Variable> valuesVariables = new ArrayList<>(variablesValuesMap.keySet());
+        CompiledExpression expression = compile(infixFormula, postfixFormula,
+                valuesVariables, getIndexes(valuesVariables));
+        if (postfixFormula != null) {
+            postfixFormula.clear();
+        }
+        StateVector state = getState(variablesValuesMap, valuesVariables);
+        if (state == null) {
             return null;
         }
-        Stack<String> result = new Stack<>();
-        this.variablesValues = variablesValuesMap;
-        variablesNames = new HashMap<>();
-        Set<Variable> variables = variablesValues.keySet();
-        for (Variable variable : variables) {
-            variablesNames.put(variable.getName(), variable);
+        int value = variable == null ? expression.evaluate(state)
+                : expression.evaluate(state, variable);
+        if (value == CompiledExpression.ERROR) {
+            return null;
         }
-        String currentElement;
-        FormulaState currentState;
-        String rightOperand, leftOperand, operand;
-        do {
-            currentElement = postfixFormula.pollFirst();
-            currentState = determineState(currentElement);
-            switch (currentState) {
-                case BINARY_ARITHMETIC_OPERATOR:
-                case BINARY_COMPARE_OPERATOR:
-                    try {
-                        rightOperand = result.pop();
-                        leftOperand = result.pop();
-                        result.push(operateBinaryNonLogic(leftOperand, rightOperand, 
-                                currentElement));
-                    }
-                    catch (EmptyStackException | IllegalArgumentException ex) {
-                        return null;
-                    }
-                    break;
-                    
-                case BINARY_LOGIC_OPERATOR:
-                    try {
-                        rightOperand = result.pop();
-                        leftOperand = result.pop();
-                        result.push(operateBinaryLogic(leftOperand, rightOperand, 
-                                (String)currentElement));
-                    }
-                    catch (EmptyStackException | IllegalArgumentException ex) {
-                        return null;
-                    }
-                    break;
-                    
-                case CONSTANT:
-                    try {
-                        result.push(processConstant(currentElement));
-                    }
-                    catch (IllegalArgumentException ex) {
-                        return null;
-                    }
-                    break;
-                    
-                case UNARY_ARITHMETIC_OPERATOR:
-                    try {
-                        operand = result.pop();
-                        result.push(operateUnaryArithmetic(operand));
-                    }
-                    catch (EmptyStackException | IllegalArgumentException ex) {
-                        return null;
-                    }
-                    break;
-                    
-                case UNARY_LOGIC_OPERATOR:
-                    try {
-                        operand = result.pop();
-                        result.push(operateUnaryLogic(operand));
-                    }
-                    catch (EmptyStackException | IllegalArgumentException ex) {
-                        return null;
-                    }
-                    break;
-                    
-                case VARIABLE:
-                    try {
-                        result.push(processVariable(currentElement));
-                    }
-                    catch (IllegalArgumentException ex) {
-                        return null;
-                    }
-                    break;
+        boolean isBoolean = variable == null ? expression.isCondition()
+                : variable.getType() == VariableType.BOOLEAN;
+        if (isBoolean) {
+            return value != 0 ? TRUE : FALSE;
+        }
+        return Integer.toString(value);
+    }
+
+    private static Map<String, Integer> getIndexes(List<Variable> variables) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < variables.size(); i++) {
+            indexes.put(variables.get(i).getName(), i);
+        }
+        return indexes;
+    }
+
+    private StateVector getState(Map<Variable, String> variablesValuesMap,
+            List<Variable> valuesVariables) {
+        StateVector state = new StateVector(valuesVariables.size());
+        for (int i = 0; i < valuesVariables.size(); i++) {
+            String value = variablesValuesMap.get(valuesVariables.get(i));
+            if (value.equals(TRUE) || value.equals(FALSE)) {
+                state.setValue(i, (short) (value.equals(TRUE) ? 1 : 0));
+                continue;
+            }
+            try {
+                state.setValue(i, Short.parseShort(value));
+            }
+            catch (NumberFormatException ex) {
+                logger.log(Level.ERROR, "Unknown constant " + value);
+                return null;
+            }
+        }
+        return state;
+    }
+
+    private CompiledExpression compile(String infixFormula, Deque<String> postfixFormula,
+            List<Variable> variables, Map<String, Integer> variablesIndexes) {
+        if (postfixFormula == null || postfixFormula.isEmpty()) {
+            return new CompiledExpression(infixFormula, null, new int[0]);
+        }
+        List<Integer> referencedVariables = new ArrayList<>();
+        for (String element : postfixFormula) {
+            Integer variable = variablesIndexes.get(element);
+            if (variable != null && !referencedVariables.contains(variable)) {
+                referencedVariables.add(variable);
+            }
+        }
+        int[] variablesArray = new int[referencedVariables.size()];
+        for (int i = 0; i < variablesArray.length; i++) {
+            variablesArray[i] = referencedVariables.get(i);
+        }
+        Deque<Node> result = new ArrayDeque<>();
+        for (String element : postfixFormula) {
+            if (!compileElement(element, result, variables, variablesIndexes)) {
+                return new CompiledExpression(infixFormula, null, variablesArray);
             }
         }
-        while (!postfixFormula.isEmpty());
         if (result.size() != 1) {
             logger.log(Level.ERROR, "Error processing " + infixFormula);
-            return null;
+            return new CompiledExpression(infixFormula, null, variablesArray);
         }
-        return result.pop();
+        return new CompiledExpression(infixFormula, result.pop(), variablesArray);
     }
 
-    private enum FormulaState {
-        BINARY_LOGIC_OPERATOR,
-        BINARY_COMPARE_OPERATOR,
-        UNARY_LOGIC_OPERATOR,
-        BINARY_ARITHMETIC_OPERATOR,
-        UNARY_ARITHMETIC_OPERATOR,
-        CONSTANT,
-        VARIABLE
-    }
-    
-    private FormulaState determineState(String element) {
-        if (element.matches(INTEGER)) {
-            return FormulaState.CONSTANT;
+    private boolean compileElement(String element, Deque<Node> result,
+            List<Variable> variables, Map<String, Integer> variablesIndexes) {
+        if (element.equals(TRUE) || element.equals(FALSE)) {
+            result.push(new ConstantNode(element.equals(TRUE) ? 1 : 0, true));
+            return true;
+        }
+        if (INTEGER.matcher(element).matches()) {
+            try {
+                result.push(new ConstantNode(Short.parseShort(element), false));
+                return true;
+            }
+            catch (NumberFormatException ex) {
+                logger.log(Level.ERROR, element + " doesn't fit int");
+                return false;
+            }
         }
-        
         switch (element) {
             case AND:
+                return compileBinary(BinaryNode.AND, true, result);
+
             case OR:
-                return FormulaState.BINARY_LOGIC_OPERATOR;
-                
-            case ASTERISK:
-            case MINUS:
+                return compileBinary(BinaryNode.OR, true, result);
+
             case PLUS:
+                return compileBinary(BinaryNode.PLUS, false, result);
+
+            case MINUS:
+                return compileBinary(BinaryNode.MINUS, false, result);
+
+            case ASTERISK:
+                return compileBinary(BinaryNode.MULTIPLY, false, result);
+
             case SLASH:
-                return FormulaState.BINARY_ARITHMETIC_OPERATOR;
-                
-            case EQUAL:
+                return compileBinary(BinaryNode.DIVIDE, false, result);
+
             case GREATER:
+                return compileBinary(BinaryNode.GREATER, false, result);
+
             case GREATER_EQUAL:
+                return compileBinary(BinaryNode.GREATER_EQUAL, false, result);
+
             case LESS:
+                return compileBinary(BinaryNode.LESS, false, result);
+
             case LESS_EQUAL:
+                return compileBinary(BinaryNode.LESS_EQUAL, false, result);
+
+            case EQUAL:
+                return compileEquality(BinaryNode.EQUAL, result);
+
             case NOT_EQUAL:
-                return FormulaState.BINARY_COMPARE_OPERATOR;
-                
+                return compileEquality(BinaryNode.NOT_EQUAL, result);
+
             case NOT:
-                return FormulaState.UNARY_LOGIC_OPERATOR;
-                
+                return compileNegation(true, result);
+
             case UNARY_MINUS:
-                return FormulaState.UNARY_ARITHMETIC_OPERATOR;
-                
+                return compileNegation(false, result);
+
             default:
-                return FormulaState.VARIABLE;
-        }
-    }
-    
-    private String operateBinaryNonLogic(String leftOperand, String rightOperand, String operation) {
-        FormulaState leftOperandState = determineState(leftOperand);
-        FormulaState rightOperandState = determineState(rightOperand);
-        Variable leftVariable = null, rightVariable = null;
-        if (leftOperandState != FormulaState.CONSTANT || rightOperandState != FormulaState.CONSTANT) {
-            throw new IllegalArgumentException();
-        }
-        
-        Object[] leftValueAndType = getValueAndType(leftOperand);
-        if (leftValueAndType == null) {
-            logger.log(Level.ERROR, "Unknown constant " + leftOperand);
-            throw new IllegalArgumentException();
-        }
-        switch ((String) leftValueAndType[1]) {
-            case "INTEGER":
-                Short realLeftValue = Short.parseShort(leftOperand);
-                Object[] rightValueAndType = getValueAndType(rightOperand);
-                if (rightValueAndType == null) {
-                    logger.log(Level.ERROR, "Unknown constant " + rightOperand);
-                    throw new IllegalArgumentException();
-                }
-                switch ((String)rightValueAndType[1]) {
-                    case "INTEGER":
-                        switch (operation) {
-                            case MINUS:
-                                return Short.toString((short) (realLeftValue - Short.parseShort(rightOperand)));
-
-                            case PLUS:
-                                return Short.toString((short) (realLeftValue + Short.parseShort(rightOperand)));
-
-                            case SLASH:
-                                return Short.toString((short) (realLeftValue / Short.parseShort(rightOperand)));
-
-                            case ASTERISK:
-                                return Short.toString((short) (realLeftValue * Short.parseShort(rightOperand)));
-
-                            case EQUAL:
-                                return Boolean.toString(realLeftValue == Short.parseShort(rightOperand));
-                                
-                            case NOT_EQUAL:
-                                return Boolean.toString(realLeftValue != Short.parseShort(rightOperand));
-                                
-                            case GREATER:
-                                return Boolean.toString(realLeftValue > Short.parseShort(rightOperand));
-                                
-                            case GREATER_EQUAL:
-                                return Boolean.toString(realLeftValue >= Short.parseShort(rightOperand));
-                                
-                            case LESS:
-                                return Boolean.toString(realLeftValue < Short.parseShort(rightOperand));
-                                
-                            case LESS_EQUAL:
-                                return Boolean.toString(realLeftValue <= Short.parseShort(rightOperand));
-                            
-                            default:
-                                logger.log(Level.ERROR, "Unknown operation " + operation);
-                                throw new IllegalArgumentException();
-                        }
+                Integer variable = variablesIndexes.get(element);
+                if (variable == null) {
+                    logger.log(Level.ERROR, "Unknown variable " + element);
+                    return false;
                 }
+                result.push(new VariableNode(variable,
+                        variables.get(variable).getType() == VariableType.BOOLEAN));
+                return true;
         }
-        logger.log(Level.ERROR, "Unknown operation or operand");
-        throw new IllegalArgumentException();
-    }
-    
-    private String operateBinaryLogic(String leftOperand, String rightOperand, String operation) {
-        if (!leftOperand.equals(TRUE) && !leftOperand.equals(FALSE) || 
-                !rightOperand.equals(TRUE) && !rightOperand.equals(FALSE)) {
-            logger.log(Level.ERROR, "Unknown boolean value");
-            throw new IllegalArgumentException();
-        }
-        Boolean leftValue = Boolean.parseBoolean(leftOperand), 
-                rightValue = Boolean.parseBoolean(rightOperand);
-        switch (operation) {
-            case AND:
-                return Boolean.toString(leftValue && rightValue);
-                
-            case OR:
-                return Boolean.toString(leftValue || rightValue);
-        }
-        logger.log(Level.ERROR, "Unknown operation " + operation);
-        throw new IllegalArgumentException();
-    }
-
-    private String processConstant(String currentElement) {
-        Object[] valueAndType = getValueAndType(currentElement);
-        if (valueAndType == null) {
-            throw new IllegalArgumentException();
-        }
-        return currentElement;
     }
 
-    private String operateUnaryArithmetic(String operand) {
-        FormulaState operandState = determineState(operand);
-        
-        if (operandState != FormulaState.CONSTANT) {
-            logger.log(Level.ERROR, "Unknown operand " + operand);
-            throw new IllegalArgumentException();
+    /*
+     * Both operands must have the given type.
+     */
+    private boolean compileBinary(int operation, boolean isLogic, Deque<Node> result) {
+        if (result.size() < 2) {
+            return false;
         }
-        Object[] valueAndType = getValueAndType(operand);
-        if (valueAndType == null) {
-            logger.log(Level.ERROR, "Unknown operand " + operand);
-            throw new IllegalArgumentException();
+        Node rightOperand = result.pop();
+        Node leftOperand = result.pop();
+        if (leftOperand.isBoolean != isLogic || rightOperand.isBoolean != isLogic) {
+            logger.log(Level.ERROR, "Unknown operation or operand");
+            return false;
         }
-        switch ((String) valueAndType[1]) {
-            case "INTEGER":
-                return Short.toString((short)-Short.parseShort(operand));
-        }
-        logger.log(Level.ERROR, "Unknown operand " + operand);
-        throw new IllegalArgumentException();
+        result.push(new BinaryNode(operation, leftOperand, rightOperand));
+        return true;
     }
 
-    private String operateUnaryLogic(String operand) {
-        if (operand.equals(TRUE) && operand.equals(FALSE)) {
-            logger.log(Level.ERROR, "Unknown boolean value");
-            throw new IllegalArgumentException();
+    /*
+     * Operands must have the same type, either one.
+     */
+    private boolean compileEquality(int operation, Deque<Node> result) {
+        if (result.size() < 2) {
+            return false;
+        }
+        Node rightOperand = result.pop();
+        Node leftOperand = result.pop();
+        if (leftOperand.isBoolean != rightOperand.isBoolean) {
+            logger.log(Level.ERROR, "Unknown operation or operand");
+            return false;
         }
-        Boolean value = Boolean.parseBoolean(operand);
-        return Boolean.toString(!value);
+        result.push(new BinaryNode(operation, leftOperand, rightOperand));
+        return true;
     }
 
-    private String processVariable(String currentElement) {
-        Variable variable = variablesNames.get(currentElement);
-        if (variable == null) {
-            logger.log(Level.ERROR, "Unknown variable " + currentElement);
-            throw new IllegalArgumentException();
+    private boolean compileNegation(boolean isLogic, Deque<Node> result) {
+        if (result.isEmpty()) {
+            return false;
         }
-        String value = variablesValues.get(variable);
-        if (value == null) {
-            logger.log(Level.ERROR, "Unknown variable " + currentElement);
-            throw new IllegalArgumentException();
-        }
-        return value;
-    }
-    
-    private Object[] getValueAndType(String constant) {
-        if (constant.matches(INTEGER)) {
-            return new Object[] { Short.parseShort(constant), "INTEGER" };
+        Node operand = result.pop();
+        if (operand.isBoolean != isLogic) {
+            logger.log(Level.ERROR, "Unknown operand");
+            return false;
         }
-        return null;
+        result.push(new NegationNode(operand));
+        return true;
     }
 }
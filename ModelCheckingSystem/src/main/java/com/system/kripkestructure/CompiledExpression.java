@@ -0,0 +1,381 @@
+package com.system.kripkestructure;
+
+import com.system.util.SingleLogger;
+import net.sf.javabdd.BDD;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Condition or expression compiled by Calculator into a tree of typed nodes,
+ * which are evaluated over values of a StateVector without parsing
+ * and without creating objects. Boolean values are 1 and 0. Types are
+ * checked while compiling, so a formula that can't be calculated is known
+ * in advance; it is reported each time it is evaluated, as its value
+ * is asked for. The tree can be encoded as bit vectors too, giving
+ * the value of the formula for all values of its variables at once.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class CompiledExpression {
+
+    /**
+     * Value of a formula that can't be calculated.
+     */
+    public static final int ERROR = Integer.MIN_VALUE;
+
+    private final String infixFormula;
+    private final Node root;
+    private final int[] variables;
+    private boolean isDivisionByZeroLogged = true;
+
+    private static Logger logger;
+
+    static {
+        logger = SingleLogger.getLogger();
+    }
+
+    /**
+     *
+     * @param infixFormula The formula for logging.
+     * @param root Root of the tree; null if the formula can't be calculated.
+     * @param variables Indexes of variables the formula references, in order
+     * of their first occurrence.
+     */
+    CompiledExpression(String infixFormula, Node root, int[] variables) {
+        this.infixFormula = infixFormula;
+        this.root = root;
+        this.variables = variables;
+    }
+
+    /**
+     *
+     * @return Indexes of variables the formula references, in order of their
+     * first occurrence; they mustn't be modified.
+     */
+    public int[] getVariables() {
+        return variables;
+    }
+
+    /**
+     *
+     * @return True if the formula can be calculated and its value is boolean.
+     */
+    public boolean isCondition() {
+        return root != null && root.isBoolean;
+    }
+
+    /**
+     *
+     * @param isLogged False if the caller reports division by zero itself,
+     * as it isn't always an error; true by default.
+     */
+    public void setDivisionByZeroLogged(boolean isLogged) {
+        isDivisionByZeroLogged = isLogged;
+    }
+
+    /**
+     *
+     * @param state State giving values of the variables.
+     * @return Value of the formula, 1 or 0 if it is boolean; ERROR if it can't
+     * be calculated, one of its variables has no concrete value or it divides
+     * by zero.
+     */
+    public int evaluate(StateVector state) {
+        if (root == null) {
+            logger.log(Level.ERROR, "Error processing " + infixFormula);
+            return ERROR;
+        }
+        for (int variable : variables) {
+            if (!state.isDefined(variable)) {
+                logger.log(Level.ERROR, "Unknown variable in " + infixFormula);
+                return ERROR;
+            }
+        }
+        int value = root.evaluate(state);
+        if (value == ERROR && isDivisionByZeroLogged) {
+            logger.log(Level.ERROR, "Division by zero in " + infixFormula);
+        }
+        return value;
+    }
+
+    /**
+     *
+     * @param state State giving values of the variables.
+     * @param variable A variable the value of the formula is assigned to.
+     * @return Value of the formula wrapped around into the range of variable
+     * (so arithmetic of <i>intN</i> works in N bits); ERROR if the formula
+     * can't be calculated, divides by zero or its type doesn't match the type
+     * of variable.
+     */
+    public int evaluate(StateVector state, Variable variable) {
+        int value = evaluate(state);
+        if (value == ERROR) {
+            return ERROR;
+        }
+        switch (variable.getType()) {
+            case BOOLEAN:
+                if (root.isBoolean) {
+                    return value;
+                }
+                break;
+
+            case INTEGER:
+                if (!root.isBoolean) {
+                    int minValue = variable.getMinValue();
+                    int range = variable.getMaxValue() - minValue + 1;
+                    int offset = (value - minValue) % range;
+                    if (offset < 0) {
+                        offset += range;
+                    }
+                    return minValue + offset;
+                }
+                break;
+        }
+        logger.log(Level.ERROR, infixFormula + " can't be assigned to "
+                + variable.getName());
+        return ERROR;
+    }
+
+    /**
+     *
+     * @param encoder ExpressionEncoder giving bits of variables.
+     * @return Value of the formula as a vector of 16 bits, or of a single bit
+     * if it is boolean; null if the formula can't be calculated.
+     */
+    public BitVector encode(ExpressionEncoder encoder) {
+        if (root == null) {
+            return null;
+        }
+        return root.encode(encoder);
+    }
+
+    /**
+     * Node of the tree; boolean nodes give 1 or 0, any node gives ERROR
+     * if a division by zero occurs in it.
+     */
+    abstract static class Node {
+
+        protected final boolean isBoolean;
+
+        protected Node(boolean isBoolean) {
+            this.isBoolean = isBoolean;
+        }
+
+        protected abstract int evaluate(StateVector state);
+
+        protected abstract BitVector encode(ExpressionEncoder encoder);
+    }
+
+    static class ConstantNode extends Node {
+
+        private final int value;
+
+        ConstantNode(int value, boolean isBoolean) {
+            super(isBoolean);
+            this.value = value;
+        }
+
+        @Override
+        protected int evaluate(StateVector state) {
+            return value;
+        }
+
+        @Override
+        protected BitVector encode(ExpressionEncoder encoder) {
+            return encoder.encodeConstant(value, isBoolean);
+        }
+    }
+
+    static class VariableNode extends Node {
+
+        private final int variable;
+
+        VariableNode(int variable, boolean isBoolean) {
+            super(isBoolean);
+            this.variable = variable;
+        }
+
+        @Override
+        protected int evaluate(StateVector state) {
+            short value = state.getValue(variable);
+            if (isBoolean) {
+                return value != 0 ? 1 : 0;
+            }
+            return value;
+        }
+
+        @Override
+        protected BitVector encode(ExpressionEncoder encoder) {
+            return encoder.encodeVariable(variable);
+        }
+    }
+
+    static class NegationNode extends Node {
+
+        private final Node operand;
+
+        NegationNode(Node operand) {
+            super(operand.isBoolean);
+            this.operand = operand;
+        }
+
+        @Override
+        protected int evaluate(StateVector state) {
+            int value = operand.evaluate(state);
+            if (value == ERROR) {
+                return ERROR;
+            }
+            return isBoolean ? 1 - value : (short) -value;
+        }
+
+        @Override
+        protected BitVector encode(ExpressionEncoder encoder) {
+            BitVector value = operand.encode(encoder);
+            BitVector result = isBoolean ? value.not() : value.negate();
+            value.free();
+            return result;
+        }
+    }
+
+    /*
+     * Both operands are always evaluated, so && and || don't skip a division
+     * by zero: it makes the whole formula ERROR.
+     */
+    static class BinaryNode extends Node {
+
+        static final int PLUS = 0;
+        static final int MINUS = 1;
+        static final int MULTIPLY = 2;
+        static final int DIVIDE = 3;
+        static final int EQUAL = 4;
+        static final int NOT_EQUAL = 5;
+        static final int GREATER = 6;
+        static final int GREATER_EQUAL = 7;
+        static final int LESS = 8;
+        static final int LESS_EQUAL = 9;
+        static final int AND = 10;
+        static final int OR = 11;
+
+        private final int operation;
+        private final Node leftOperand;
+        private final Node rightOperand;
+
+        BinaryNode(int operation, Node leftOperand, Node rightOperand) {
+            super(operation >= EQUAL);
+            this.operation = operation;
+            this.leftOperand = leftOperand;
+            this.rightOperand = rightOperand;
+        }
+
+        @Override
+        protected int evaluate(StateVector state) {
+            int left = leftOperand.evaluate(state);
+            int right = rightOperand.evaluate(state);
+            if (left == ERROR || right == ERROR) {
+                return ERROR;
+            }
+            switch (operation) {
+                case PLUS:
+                    return (short) (left + right);
+
+                case MINUS:
+                    return (short) (left - right);
+
+                case MULTIPLY:
+                    return (short) (left * right);
+
+                case DIVIDE:
+                    if (right == 0) {
+                        return ERROR;
+                    }
+                    return (short) (left / right);
+
+                case EQUAL:
+                    return left == right ? 1 : 0;
+
+                case NOT_EQUAL:
+                    return left != right ? 1 : 0;
+
+                case GREATER:
+                    return left > right ? 1 : 0;
+
+                case GREATER_EQUAL:
+                    return left >= right ? 1 : 0;
+
+                case LESS:
+                    return left < right ? 1 : 0;
+
+                case LESS_EQUAL:
+                    return left <= right ? 1 : 0;
+
+                case AND:
+                    return left & right;
+
+                default:
+                    return left | right;
+            }
+        }
+
+        @Override
+        protected BitVector encode(ExpressionEncoder encoder) {
+            BitVector left = leftOperand.encode(encoder);
+            BitVector right = rightOperand.encode(encoder);
+            BitVector result;
+            switch (operation) {
+                case PLUS:
+                    result = left.add(right);
+                    break;
+
+                case MINUS:
+                    result = left.subtract(right);
+                    break;
+
+                case MULTIPLY:
+                    result = left.multiply(right);
+                    break;
+
+                case DIVIDE:
+                    result = encoder.encodeDivision(left, right);
+                    break;
+
+                default:
+                    result = BitVector.bit(encodeCondition(left, right));
+                    break;
+            }
+            left.free();
+            right.free();
+            return result;
+        }
+
+        private BDD encodeCondition(BitVector left, BitVector right) {
+            switch (operation) {
+                case EQUAL:
+                    return left.equalTo(right);
+
+                case NOT_EQUAL:
+                    BDD equal = left.equalTo(right);
+                    BDD result = equal.not();
+                    equal.free();
+                    return result;
+
+                case GREATER:
+                    return right.lessThan(left);
+
+                case GREATER_EQUAL:
+                    return right.lessOrEqual(left);
+
+                case LESS:
+                    return left.lessThan(right);
+
+                case LESS_EQUAL:
+                    return left.lessOrEqual(right);
+
+                case AND:
+                    return left.getBit(0).and(right.getBit(0));
+
+                default:
+                    return left.getBit(0).or(right.getBit(0));
+            }
+        }
+    }
+}
@@ -47,6 +47,8 @@ class ConditionParser {
     private static final String ASTERISK = "*";
     private static final String SLASH = "/";
     private static final String UNARY = "U";
+    private static final String TRUE = "true";
+    private static final String FALSE = "false";
     private static final String DIGIT = "^\\-?\\d+$";
     private static final String WHITESPACE = "\\s";
     private static final String LETTER = "\\w";
@@ -703,7 +705,7 @@ class ConditionParser {
         if (element.equals(SLASH)) {
             return ConditionState.SLASH;
         }
-        if (element.matches(DIGIT)) {
+        if (element.matches(DIGIT) || element.equals(TRUE) || element.equals(FALSE)) {
             return ConditionState.CONSTANT;
         }
         if (variablesNames.contains(element)) {
@@ -0,0 +1,95 @@
+package com.system.kripkestructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class DisjunctionBuilder {
+
+    private final BDDFactory factory;
+    private final BDD[] batch;
+    private int batchLength;
+    private final List<BDD> partialResults;
+
+    /**
+     *
+     * @param factory BDDFactory the added BDDs belong to.
+     * @param batchSize Number of BDDs buffered before they are merged.
+     */
+    public DisjunctionBuilder(BDDFactory factory, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.factory = factory;
+        batch = new BDD[batchSize];
+        partialResults = new ArrayList<>();
+    }
+
+    /**
+     *
+     * @param disjunct A BDD to add to the disjunction; it is consumed.
+     */
+    public void add(BDD disjunct) {
+        batch[batchLength++] = disjunct;
+        if (batchLength == batch.length) {
+            addPartialResult(mergeBatch());
+        }
+    }
+
+    /**
+     * Resets the builder, so it can be used for another disjunction.
+     *
+     * @return Disjunction of all BDDs added since the last reset.
+     */
+    public BDD getResult() {
+        BDD result = batchLength == 0 ? factory.zero() : mergeBatch();
+        for (int i = 0; i < partialResults.size(); i++) {
+            if (partialResults.get(i) != null) {
+                result.orWith(partialResults.get(i));
+            }
+        }
+        partialResults.clear();
+        return result;
+    }
+
+    /*
+     * Merges the batch pairwise, so both operands of every disjunction have
+     * been built from the same number of BDDs.
+     */
+    private BDD mergeBatch() {
+        for (int step = 1; step < batchLength; step *= 2) {
+            for (int i = 0; i + step < batchLength; i += 2 * step) {
+                batch[i].orWith(batch[i + step]);
+                batch[i + step] = null;
+            }
+        }
+        BDD result = batch[0];
+        batch[0] = null;
+        batchLength = 0;
+        return result;
+    }
+
+    /*
+     * Partial result number i is a disjunction of 2^i batches; adding a batch
+     * works like incrementing a binary counter.
+     */
+    private void addPartialResult(BDD partialResult) {
+        int level = 0;
+        while (level < partialResults.size() && partialResults.get(level) != null) {
+            partialResult.orWith(partialResults.get(level));
+            partialResults.set(level, null);
+            level++;
+        }
+        if (level == partialResults.size()) {
+            partialResults.add(partialResult);
+        }
+        else {
+            partialResults.set(level, partialResult);
+        }
+    }
+}
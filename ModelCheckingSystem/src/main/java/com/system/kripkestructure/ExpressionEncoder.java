@@ -0,0 +1,226 @@
+package com.system.kripkestructure;
+
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * Encodes compiled conditions and expressions as BDDs over bits of the current
+ * state, so a statement is translated once for all values of its variables.
+ * Values are encoded as StateEncoder does: as the offset from the least value
+ * of the variable, the most significant bit first. Values of variables where
+ * the formula divides by zero are collected apart, like ERROR of the compiled
+ * formula, so the caller decides what they give.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class ExpressionEncoder {
+
+    private static final int INTEGER_SIZE = 16;
+    // the offset of a short from the least value of a variable takes 17 bits
+    private static final int WRAP_SIZE = 20;
+    private static final int SHORT_RANGE = 1 << INTEGER_SIZE;
+
+    private final BDDFactory factory;
+    private final List<Variable> variables;
+    private final int[][] currentBits;
+    private final int[][] nextBits;
+    private final BDD[] domains;
+    private BDD divisionByZero;
+
+    /**
+     *
+     * @param factory BDDFactory with all variables of the Kripke structure.
+     * @param variables List of program variables.
+     * @param bddVariables BDD variable of each bit: bits of the program counter
+     * and of program variables, then their next state copies.
+     * @param variablesOffsets Index of the first BDD variable of each program
+     * variable.
+     * @param halfVariablesNumberBDD Shift between current and next state
+     * BDD variables.
+     */
+    public ExpressionEncoder(BDDFactory factory, List<Variable> variables,
+            int[] bddVariables, int[] variablesOffsets, int halfVariablesNumberBDD) {
+        this.factory = factory;
+        this.variables = variables;
+        currentBits = new int[variables.size()][];
+        nextBits = new int[variables.size()][];
+        for (int i = 0; i < variables.size(); i++) {
+            int size = variables.get(i).getSize();
+            currentBits[i] = new int[size];
+            nextBits[i] = new int[size];
+            for (int j = 0; j < size; j++) {
+                currentBits[i][j] = bddVariables[variablesOffsets[i] + j];
+                nextBits[i][j] = bddVariables[variablesOffsets[i] + j
+                        + halfVariablesNumberBDD];
+            }
+        }
+        domains = new BDD[variables.size()];
+    }
+
+    /**
+     *
+     * @param condition Compiled condition.
+     * @return BDD over current state variables where the condition holds
+     * (see takeDivisionByZero); null if it isn't a condition or can't be
+     * calculated.
+     */
+    public BDD encodeCondition(CompiledExpression condition) {
+        if (!condition.isCondition()) {
+            return null;
+        }
+        startEncoding();
+        BitVector value = condition.encode(this);
+        BDD result = value.getBit(0).id();
+        value.free();
+        return result;
+    }
+
+    /**
+     *
+     * @param expression Compiled expression.
+     * @param variable Index of the variable the expression is assigned to.
+     * @return BDD relating the next state value of the variable to the current
+     * state, the value of the expression being wrapped around into the range
+     * of the variable (see CompiledExpression.evaluate and takeDivisionByZero);
+     * null if the expression can't be calculated or its type doesn't match
+     * the type of the variable.
+     */
+    public BDD encodeAssignment(CompiledExpression expression, int variable) {
+        startEncoding();
+        BitVector value = expression.encode(this);
+        if (value == null) {
+            return null;
+        }
+        boolean isBoolean = variables.get(variable).getType() == VariableType.BOOLEAN;
+        if (isBoolean != (value.getWidth() == 1)) {
+            value.free();
+            return null;
+        }
+        BitVector offset = isBoolean ? value : encodeOffset(value, variable);
+        int[] bits = nextBits[variable];
+        BDD result = factory.one();
+        for (int i = 0; i < bits.length; i++) {
+            BDD bit = factory.ithVar(bits[i]);
+            result.andWith(bit.biimpWith(offset.getBit(bits.length - 1 - i).id()));
+        }
+        offset.free();
+        if (!isBoolean) {
+            value.free();
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @return BDD over current state variables where the formula encoded last
+     * divides by zero, so its value there is meaningless; it is taken
+     * by the caller.
+     */
+    public BDD takeDivisionByZero() {
+        BDD result = divisionByZero != null ? divisionByZero : factory.zero();
+        divisionByZero = null;
+        return result;
+    }
+
+    /**
+     *
+     * @param variable Index of a program variable.
+     * @return BDD over current state variables allowing exactly the values
+     * of the range of the variable.
+     */
+    public BDD encodeDomain(int variable) {
+        if (domains[variable] == null) {
+            Variable description = variables.get(variable);
+            BitVector offset = BitVector.variables(factory, currentBits[variable]);
+            BitVector maxOffset = BitVector.constant(factory, offset.getWidth(),
+                    description.getMaxValue() - description.getMinValue());
+            domains[variable] = offset.lessOrEqualUnsigned(maxOffset);
+            offset.free();
+            maxOffset.free();
+        }
+        return domains[variable].id();
+    }
+
+    /**
+     * Frees BDDs held by the encoder.
+     */
+    public void free() {
+        for (int i = 0; i < domains.length; i++) {
+            if (domains[i] != null) {
+                domains[i].free();
+                domains[i] = null;
+            }
+        }
+        if (divisionByZero != null) {
+            divisionByZero.free();
+            divisionByZero = null;
+        }
+    }
+
+    BitVector encodeConstant(int value, boolean isBoolean) {
+        return BitVector.constant(factory, isBoolean ? 1 : INTEGER_SIZE, value);
+    }
+
+    BitVector encodeDivision(BitVector dividend, BitVector divisor) {
+        divisionByZero.orWith(divisor.isZero());
+        return dividend.divide(divisor);
+    }
+
+    BitVector encodeVariable(int variable) {
+        BitVector offset = BitVector.variables(factory, currentBits[variable]);
+        Variable description = variables.get(variable);
+        if (description.getType() == VariableType.BOOLEAN) {
+            return offset;
+        }
+        BitVector wideOffset = offset.resize(INTEGER_SIZE, false);
+        BitVector minValue = BitVector.constant(factory, INTEGER_SIZE,
+                description.getMinValue());
+        BitVector result = wideOffset.add(minValue);
+        offset.free();
+        wideOffset.free();
+        minValue.free();
+        return result;
+    }
+
+    private void startEncoding() {
+        if (divisionByZero != null) {
+            divisionByZero.free();
+        }
+        divisionByZero = factory.zero();
+    }
+
+    /*
+     * The offset is (value - min) mod range; if the range is a power of two,
+     * these are the lowest bits of the difference, otherwise it is found
+     * by division of the difference, shifted up by a multiple of the range,
+     * so it isn't negative.
+     */
+    private BitVector encodeOffset(BitVector value, int variable) {
+        Variable description = variables.get(variable);
+        int minValue = description.getMinValue();
+        int range = description.getMaxValue() - minValue + 1;
+        int size = description.getSize();
+        if (range == 1 << size) {
+            BitVector minVector = BitVector.constant(factory, INTEGER_SIZE, minValue);
+            BitVector difference = value.subtract(minVector);
+            BitVector result = difference.resize(size, false);
+            minVector.free();
+            difference.free();
+            return result;
+        }
+        int shift = range * ((SHORT_RANGE + range - 1) / range);
+        BitVector wideValue = value.resize(WRAP_SIZE, true);
+        BitVector shiftVector = BitVector.constant(factory, WRAP_SIZE, shift - minValue);
+        BitVector shifted = wideValue.add(shiftVector);
+        BitVector rangeVector = BitVector.constant(factory, WRAP_SIZE, range);
+        BitVector remainder = shifted.remainderUnsigned(rangeVector);
+        BitVector result = remainder.resize(size, false);
+        wideValue.free();
+        shiftVector.free();
+        shifted.free();
+        rangeVector.free();
+        remainder.free();
+        return result;
+    }
+}
@@ -7,15 +7,30 @@ package com.system.kripkestructure;
 public class IntegerVariable implements Variable {
     
     private final String name;
+    private final int size;
     private static final VariableType TYPE = VariableType.INTEGER;
-    private static final int SIZE = 16;
+    private static final int MAX_SIZE = 16;
     
     /**
      *
      * @param name A name of this IntegerVariable.
      */
     public IntegerVariable(String name) {
+        this(name, MAX_SIZE);
+    }
+    
+    /**
+     *
+     * @param name A name of this IntegerVariable.
+     * @param size Number of bits of this IntegerVariable, from 1 to 16; 
+     * values are signed and wrap around on overflow.
+     */
+    public IntegerVariable(String name, int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException();
+        }
         this.name = name;
+        this.size = size;
     }
 
     /**
@@ -38,11 +53,30 @@ public class IntegerVariable implements Variable {
     
     /**
      *
-     * @return Number of bits for variable of <i>int</i> type; it's 16 for now.
+     * @return Number of bits for this variable; it's 16 for <i>int</i> 
+     * and N for <i>intN</i>.
      */
     @Override
     public int getSize() {
-        return SIZE;
+        return size;
+    }
+    
+    /**
+     *
+     * @return -2^(size - 1)
+     */
+    @Override
+    public int getMinValue() {
+        return -(1 << (size - 1));
+    }
+    
+    /**
+     *
+     * @return 2^(size - 1) - 1
+     */
+    @Override
+    public int getMaxValue() {
+        return (1 << (size - 1)) - 1;
     }
     
     @Override
@@ -1,12 +1,18 @@
 package com.system.kripkestructure;
 
 import com.system.BDDSingleFactory;
+import com.system.temporallogic.InvariantChecker;
+import com.system.temporallogic.TransitionRelation;
 import com.system.util.SingleLogger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
 import org.apache.log4j.Level;
@@ -25,22 +31,39 @@ public class KripkeStructureTranslator {
     private int variablesNumber;
     private int doubleVariablesNumber;
     private boolean isTranslated = false;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private VariableOrdering variableOrdering = VariableOrdering.INTERLEAVED;
+    private BDDFactory.ReorderMethod reorderMethod = BDDFactory.REORDER_NONE;
+    private boolean isSymbolicInputs = true;
     
+    private int pcSize;
     private int variablesNumberBDD;
     private int halfVariablesNumberBDD;
     private BDDFactory factory;
     private BDD statesTransitionBDD;
+    private List<BDD> statesTransitionPartitions;
     private BDD startStatesBDD;
     private BDD currentTransitionBDD;
     private BDD currentStateBDD;
     private Map<Integer, List<Object>> table;
+    private Map<String, Integer> variablesIndexes;
+    private int[] variablesOffsets;
+    private int[] bddVariables;
     private Integer[] statesNumbers;
     private ProgramTableBuilder tableBuilder;
     private ConditionParser conditionParser;
     private ExpressionParser expressionParser;
+    private StateEncoder encoder;
+    private ExpressionEncoder expressionEncoder;
+    private Map<Integer, DisjunctionBuilder> transitionsBuilders;
+    private StateStore visitedStates;
+    private Map<BitSet, DisjunctionBuilder> labelsBuilders;
+    private Map<BitSet, BDD> labelledStatesBDD;
+    private BitSet undefinedVariables;
+    private BDD divisionByZeroStatesBDD;
+    private StateVector next;
+    private Location[] locations;
     
-    private static final String ZERO_STRING = "0";
-    private static final String ONE_STRING = "1";
     private static final String EXCLUDED = "EXCLUDED";
     private static final String UNDEFINED = "UNDEFINED";
     private static final String DEFINED = "DEFINED";
@@ -51,13 +74,8 @@ public class KripkeStructureTranslator {
     private static final String ELSE_STATE = "ELSE ";
     private static final String WHILE_STATE = "WHILE ";
     private static final String ENDS = " ENDS";
-    private static final String TRUE = "true";
-    private static final String FALSE = "false";
-    private static final char ZERO_CHAR = '0';
-    private static final char ONE_CHAR = '1';
     private static final char SEMICOLON = ';';
-    private static final int PC_SIZE = 8;
-    private static final int INTEGER_SIZE = 16;
+    private static final int DEFAULT_BATCH_SIZE = 256;
     private static final int READ_SHIFT = READ_STATE.length();
     private static final int ASSIGN_SHIFT = ASSIGN_STATE.length();
     private static final int IF_SHIFT = IF_STATE.length();
@@ -77,21 +95,27 @@ public class KripkeStructureTranslator {
      * brackets are operators too).
      * @param variables List of Variables instances representing variables of 
      * given program.
-     * @param atomicPredicates List of AtomicPredicates.
+     * @param atomicPredicates List of AtomicPredicates; more of them can be 
+     * added after translation by addAtomicPredicates.
      */
     public KripkeStructureTranslator(List<String> operators, List<Variable> variables,
             List<AtomicPredicate> atomicPredicates) {
         if (operators == null || operators.isEmpty() || variables == null ||
-                variables.isEmpty() || atomicPredicates == null ||
-                atomicPredicates.isEmpty()) {
+                variables.isEmpty() || atomicPredicates == null) {
             throw new IllegalArgumentException();
         }
         this.operators = operators;
-        this.variables = variables;
+        // atomic predicates are translated lazily, when the given list 
+        // may have been changed by the caller
+        this.variables = new ArrayList<>(variables);
         this.atomicPredicates = atomicPredicates;
         variablesNumber = variables.size();
         doubleVariablesNumber = variablesNumber * 2;
         tableBuilder = new ProgramTableBuilder(variables, operators);
+        variablesIndexes = new HashMap<>();
+        for (int i = 0; i < variablesNumber; i++) {
+            variablesIndexes.put(variables.get(i).getName(), i);
+        }
     }
 
     /**
@@ -117,16 +141,150 @@ public class KripkeStructureTranslator {
     }
 
     /**
+     * The BDD is built from the partitions on the first call, so it's better 
+     * to use getStatesTransitionPartitions if it's possible.
      *
      * @return BDD representing transitions between states of the Kripke structure.
      */
     public BDD getStatesTransitionBDD() {
+        if (!isTranslated) {
+            return null;
+        }
+        if (statesTransitionBDD == null) {
+            DisjunctionBuilder partitionsBuilder = new DisjunctionBuilder(factory, 
+                    batchSize);
+            for (BDD partition : statesTransitionPartitions) {
+                partitionsBuilder.add(partition.id());
+            }
+            statesTransitionBDD = partitionsBuilder.getResult();
+        }
+        return statesTransitionBDD;
+    }
+    
+    /**
+     *
+     * @return BDDs representing transitions from each location of the program, 
+     * in order of locations; their disjunction is the transition relation 
+     * of the Kripke structure.
+     */
+    public List<BDD> getStatesTransitionPartitions() {
+        if (isTranslated) {
+            return statesTransitionPartitions;
+        }
+        return null;
+    }
+    
+    /**
+     *
+     * @return BDD variable of each bit of the current state: bits of the 
+     * program counter, then bits of program variables in order of their 
+     * declarations, the most significant bit first; null if the program 
+     * hasn't been translated.
+     */
+    public int[] getCurrentStateVariables() {
+        if (isTranslated) {
+            return getStateVariables(0);
+        }
+        return null;
+    }
+    
+    /**
+     *
+     * @return BDD variable of each bit of the next state, in the same order 
+     * as getCurrentStateVariables; null if the program hasn't been translated.
+     */
+    public int[] getNextStateVariables() {
         if (isTranslated) {
-            return statesTransitionBDD;
+            return getStateVariables(halfVariablesNumberBDD);
         }
         return null;
     }
     
+    /**
+     *
+     * @return Number of bits of the program counter; -1 if the program 
+     * hasn't been translated.
+     */
+    public int getPCSize() {
+        if (isTranslated) {
+            return pcSize;
+        }
+        return -1;
+    }
+    
+    /**
+     *
+     * @param batchSize Number of transitions (and of states having the same 
+     * undefined variables) collected before they are merged into 
+     * the resulting BDDs; must be positive.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     *
+     * @param variableOrdering Initial order of BDD variables; INTERLEAVED 
+     * by default.
+     */
+    public void setVariableOrdering(VariableOrdering variableOrdering) {
+        if (variableOrdering == null) {
+            throw new IllegalArgumentException();
+        }
+        this.variableOrdering = variableOrdering;
+    }
+    
+    /**
+     *
+     * @param reorderMethod Method of automatic reordering of BDD variables 
+     * (like BDDFactory.REORDER_SIFT), which runs when the node table grows; 
+     * REORDER_NONE by default, so the initial order is kept.
+     */
+    public void setReorderMethod(BDDFactory.ReorderMethod reorderMethod) {
+        if (reorderMethod == null) {
+            throw new IllegalArgumentException();
+        }
+        this.reorderMethod = reorderMethod;
+    }
+    
+    /**
+     * Values given by read stay symbolic: conditions and assignments using 
+     * them are translated into a BDD for each location, built by bit-vector 
+     * arithmetic, and the values stay symbolic after being assigned; 
+     * only the locations the program may go to are enumerated. Otherwise 
+     * the values are enumerated when a statement uses them. 
+     * Values dividing by zero get no transition, and the translation is 
+     * cancelled if any of them is reachable, as for concrete values.
+     *
+     * @param isSymbolic True to keep values given by read symbolic, as it is 
+     * by default; false enumerates a value of each of them for each state, 
+     * which works on small ranges only, as a fallback.
+     */
+    public void setSymbolicInputs(boolean isSymbolic) {
+        this.isSymbolicInputs = isSymbolic;
+    }
+    
+    /**
+     * Reorders BDD variables of the translated Kripke structure right now.
+     *
+     * @param reorderMethod Method of reordering (like BDDFactory.REORDER_SIFT).
+     * @return True if variables have been reordered; false if the program 
+     * hasn't been translated or the method is REORDER_NONE.
+     */
+    public boolean reorder(BDDFactory.ReorderMethod reorderMethod) {
+        if (!isTranslated || reorderMethod == null || 
+                reorderMethod == BDDFactory.REORDER_NONE) {
+            return false;
+        }
+        factory.reorder(reorderMethod);
+        logger.log(Level.INFO, "BDD variables reordered, " + factory.getNodeNum() 
+                + " nodes in use");
+        return true;
+    }
+    
     /**
      *
      * @return True if translation was successful (so you can get its results 
@@ -145,11 +303,95 @@ public class KripkeStructureTranslator {
         isTranslated = translateProgram();
         return isTranslated;
     }
+    
+    /**
+     * Prepares atomic predicates for the already translated Kripke structure; 
+     * like the given ones, each of them is translated into a BDD when its BDD 
+     * is asked for, so the program doesn't have to be translated again.
+     *
+     * @param newPredicates List of AtomicPredicates to add to the given ones.
+     * @return True if all the predicates have been parsed and added; 
+     * false if the program hasn't been translated or a predicate is 
+     * bad-written (then none of them is added).
+     */
+    public boolean addAtomicPredicates(List<AtomicPredicate> newPredicates) {
+        if (!isTranslated || newPredicates == null) {
+            return false;
+        }
+        for (int i = 0; i < newPredicates.size(); i++) {
+            logger.log(Level.INFO, "Preparing added predicate number " + i);
+            if (!newPredicates.get(i).toPostfix(conditionParser, calculator)) {
+                return false;
+            }
+        }
+        for (AtomicPredicate predicate : newPredicates) {
+            predicate.setTranslator(this);
+        }
+        atomicPredicates.addAll(newPredicates);
+        return true;
+    }
+    
+    /**
+     * The condition is encoded over bits of the variables it references, 
+     * and it's restricted to the explored states where none of these 
+     * variables is undefined and to values of their ranges; so its cost 
+     * doesn't depend on the number of explored states. Like a predicate 
+     * that can't be calculated in a state, it doesn't hold where it divides 
+     * by zero.
+     *
+     * @param predicate AtomicPredicate prepared by this translator.
+     * @return BDD of the states of the Kripke structure where the predicate 
+     * holds; zero if the program hasn't been translated or the predicate 
+     * isn't a condition.
+     */
+    BDD translateAtomicPredicate(AtomicPredicate predicate) {
+        if (!isTranslated) {
+            return BDDSingleFactory.getInstanse().zero();
+        }
+        CompiledExpression formula = predicate.getCompiledFormula();
+        BDD result = expressionEncoder.encodeCondition(formula);
+        BDD divisionByZeroBDD = expressionEncoder.takeDivisionByZero();
+        if (result == null) {
+            divisionByZeroBDD.free();
+            logger.log(Level.ERROR, "Bad predicate " + predicate.getCondition());
+            return factory.zero();
+        }
+        result.andWith(divisionByZeroBDD.not());
+        divisionByZeroBDD.free();
+        BitSet predicateVariables = new BitSet(variablesNumber);
+        for (int variable : formula.getVariables()) {
+            predicateVariables.set(variable);
+            result.andWith(expressionEncoder.encodeDomain(variable));
+        }
+        BDD statesBDD = factory.zero();
+        for (Map.Entry<BitSet, BDD> entry : labelledStatesBDD.entrySet()) {
+            if (!entry.getKey().intersects(predicateVariables)) {
+                statesBDD.orWith(entry.getValue().id());
+            }
+        }
+        return result.andWith(statesBDD);
+    }
 
+    /*
+     * The program counter takes as many bits as the greatest location 
+     * of the program needs.
+     */
+    private void setPCSize() {
+        int maxPC = statesNumbers[statesNumbers.length - 1];
+        for (List<Object> node : table.values()) {
+            maxPC = Math.max(maxPC, (Integer)node.get(doubleVariablesNumber + 1));
+        }
+        pcSize = 1;
+        while ((1 << pcSize) <= maxPC) {
+            pcSize++;
+        }
+    }
+    
     private void setVariablesNumberBDD() {
-        variablesNumberBDD = PC_SIZE;
-        List<Object> node = table.get(0);
+        variablesNumberBDD = pcSize;
+        variablesOffsets = new int[variablesNumber];
         for (int i = 0; i < variables.size(); i++) {
+            variablesOffsets[i] = variablesNumberBDD;
             variablesNumberBDD += variables.get(i).getSize();
         }
         halfVariablesNumberBDD = variablesNumberBDD;
@@ -159,7 +401,117 @@ public class KripkeStructureTranslator {
     private void setFactory() {
         BDDSingleFactory.create(variablesNumberBDD * 900000, variablesNumberBDD * 20000);
         factory = BDDSingleFactory.getInstanse();
+        if (factory.varNum() > variablesNumberBDD) {
+            // the number of variables can't be decreased
+            BDDSingleFactory.recreate(variablesNumberBDD * 900000, variablesNumberBDD * 20000);
+            factory = BDDSingleFactory.getInstanse();
+        }
         factory.setVarNum(variablesNumberBDD);
+        // the order can't be set while there are variable blocks
+        factory.clearVarBlocks();
+        int[] order = new int[variablesNumberBDD];
+        boolean isReordered = false;
+        for (int i = 0; i < variablesNumberBDD; i++) {
+            order[i] = i;
+            isReordered |= factory.var2Level(i) != i;
+        }
+        if (isReordered) {
+            // variables have been reordered while checking the previous program
+            factory.setVarOrder(order);
+        }
+        setBDDVariables();
+        setReordering();
+    }
+    
+    /*
+     * BDD variables are numbered in the initial order, so the bits of a program 
+     * variable have neighbouring numbers and can be grouped for reordering.
+     */
+    private void setBDDVariables() {
+        int[] order = buildVariableOrder();
+        bddVariables = new int[variablesNumberBDD];
+        for (int level = 0; level < variablesNumberBDD; level++) {
+            bddVariables[order[level]] = level;
+        }
+    }
+    
+    private void setReordering() {
+        addVariableBlock(0, pcSize);
+        for (int i = 0; i < variablesNumber; i++) {
+            addVariableBlock(variablesOffsets[i], variables.get(i).getSize());
+        }
+        factory.autoReorder(reorderMethod);
+    }
+    
+    /*
+     * Reordering moves the bits of a program variable as a whole; each current 
+     * state bit stays right above its next state copy, unless the order 
+     * is sequential.
+     */
+    private void addVariableBlock(int start, int size) {
+        int end = start + size - 1;
+        int nextStart = start + halfVariablesNumberBDD;
+        int nextEnd = end + halfVariablesNumberBDD;
+        if (variableOrdering == VariableOrdering.SEQUENTIAL) {
+            factory.addVarBlock(bddVariables[start], bddVariables[end], false);
+            factory.addVarBlock(bddVariables[nextStart], bddVariables[nextEnd], false);
+            return;
+        }
+        if (size > 1) {
+            for (int i = start; i <= end; i++) {
+                factory.addVarBlock(bddVariables[i], 
+                        bddVariables[i + halfVariablesNumberBDD], true);
+            }
+        }
+        factory.addVarBlock(bddVariables[start], bddVariables[nextEnd], size == 1);
+    }
+    
+    private int[] buildVariableOrder() {
+        int[] variablesSizes = new int[variablesNumber];
+        for (int i = 0; i < variablesNumber; i++) {
+            variablesSizes[i] = variables.get(i).getSize();
+        }
+        VariableOrderBuilder orderBuilder = new VariableOrderBuilder(pcSize, 
+                variablesOffsets, variablesSizes, halfVariablesNumberBDD);
+        if (variableOrdering == VariableOrdering.FORCE) {
+            for (List<Object> node : table.values()) {
+                orderBuilder.addDependency(getReferencedVariables(
+                        (String)node.get(doubleVariablesNumber + 2)));
+            }
+            for (AtomicPredicate predicate : atomicPredicates) {
+                orderBuilder.addDependency(getReferencedVariables(
+                        predicate.getCondition()));
+            }
+        }
+        return orderBuilder.buildOrder(variableOrdering);
+    }
+    
+    private Set<Integer> getReferencedVariables(String statement) {
+        Set<Integer> referencedVariables = new TreeSet<>();
+        if (statement == null) {
+            return referencedVariables;
+        }
+        for (String word : statement.split("\\W+")) {
+            Integer variable = variablesIndexes.get(word);
+            if (variable != null) {
+                referencedVariables.add(variable);
+            }
+        }
+        return referencedVariables;
+    }
+    
+    private void setEncoder() {
+        int[] variablesSizes = new int[variablesNumber];
+        int[] variablesMinValues = new int[variablesNumber];
+        int[] variablesMaxValues = new int[variablesNumber];
+        for (int i = 0; i < variablesNumber; i++) {
+            variablesSizes[i] = variables.get(i).getSize();
+            variablesMinValues[i] = variables.get(i).getMinValue();
+            variablesMaxValues[i] = variables.get(i).getMaxValue();
+        }
+        encoder = new StateEncoder(factory, bddVariables, pcSize, variablesOffsets, 
+                variablesSizes, variablesMinValues, variablesMaxValues, 
+                halfVariablesNumberBDD);
     }
     
     private void setConditionParser() {
@@ -171,10 +523,11 @@ public class KripkeStructureTranslator {
     }
     
     private void setCalculator() {
-        this.calculator = new Calculator();
+        this.calculator = new Calculator(variables);
     }
 
     private boolean translateProgram() {
+        setPCSize();
         setVariablesNumberBDD();
         setFactory();
         setConditionParser();
@@ -185,12 +538,11 @@ public class KripkeStructureTranslator {
         }
         int thisPC = statesNumbers[0];
         statesNumbers = null;
-        List<Object> current = new ArrayList<>();
-        for (int i = 0; i < variablesNumber; i++) {
-            current.add(null);
-        }
+        setEncoder();
         setStartState(thisPC);
-        statesTransitionBDD = factory.zero();
+        statesTransitionBDD = null;
+        statesTransitionPartitions = null;
+        buildLocations();
         StateType stateType;
         try {
             stateType = getNextStateType(thisPC);
@@ -200,9 +552,6 @@ public class KripkeStructureTranslator {
             return false;
         }
         switch (stateType) {
-            case ASSIGN:
-                return translateAssign(current, thisPC);
-            
             case ELSE:
                 logger.log(Level.ERROR, "Else without if");
                 logger.log(Level.INFO, "Cancelling translation");
@@ -217,760 +566,533 @@ public class KripkeStructureTranslator {
                 logger.log(Level.ERROR, "Empty program");
                 logger.log(Level.INFO, "Cancelling translation");
                 return false;
-                
-            case IF:
-                logger.log(Level.INFO, "Transalting if");
-                return translateIf(current, thisPC);
-                
-            case READ:
-                logger.log(Level.INFO, "Translating read");
-                return translateRead(current, thisPC);
-                
-            case WHILE:
-                logger.log(Level.INFO, "Translating while");
-                return translateWhile(current, thisPC);
         }
-        return false;
+        return exploreStates(thisPC);
+    }
+    
+    /*
+     * Expands every reachable (pc, valuation) state exactly once; successors 
+     * are put on the frontier only if they haven't been visited yet, so 
+     * neither loops nor long programs make the stack grow.
+     */
+    private boolean exploreStates(int pc) {
+        visitedStates = new StateStore(variablesNumber);
+        StateVector current = new StateVector(variablesNumber);
+        next = new StateVector(variablesNumber);
+        // the encoder is kept for atomic predicates
+        expressionEncoder = new ExpressionEncoder(factory, variables, bddVariables, 
+                variablesOffsets, halfVariablesNumberBDD);
+        transitionsBuilders = new TreeMap<>();
+        labelsBuilders = new HashMap<>();
+        undefinedVariables = new BitSet(variablesNumber);
+        divisionByZeroStatesBDD = factory.zero();
+        current.setPC(pc);
+        visitedStates.add(current);
+        boolean isExplored = true;
+        for (int i = 0; i < visitedStates.size(); i++) {
+            if (reorderMethod != BDDFactory.REORDER_NONE && i % batchSize == 0) {
+                // variables may have been reordered automatically since the last batch
+                encoder.updateOrder();
+            }
+            visitedStates.get(i, current);
+            if (!translateNode(current)) {
+                isExplored = false;
+                break;
+            }
+        }
+        logger.log(Level.INFO, visitedStates.size() + " states explored");
+        statesTransitionPartitions = new ArrayList<>(transitionsBuilders.size());
+        for (DisjunctionBuilder transitionsBuilder : transitionsBuilders.values()) {
+            statesTransitionPartitions.add(transitionsBuilder.getResult());
+        }
+        labelledStatesBDD = new HashMap<>();
+        for (Map.Entry<BitSet, DisjunctionBuilder> entry : labelsBuilders.entrySet()) {
+            labelledStatesBDD.put(entry.getKey(), entry.getValue().getResult());
+        }
+        logger.log(Level.INFO, labelledStatesBDD.size() 
+                + " sets of undefined variables in explored states");
+        transitionsBuilders = null;
+        labelsBuilders = null;
+        undefinedVariables = null;
+        visitedStates = null;
+        next = null;
+        if (isExplored && !divisionByZeroStatesBDD.isZero()) {
+            isExplored = !isDivisionByZeroReachable();
+        }
+        divisionByZeroStatesBDD.free();
+        divisionByZeroStatesBDD = null;
+        freeLocations();
+        encoder.free();
+        encoder = null;
+        return isExplored;
     }
     
     private boolean prepareAtomicPredicates() {
         for (int i = 0; i < atomicPredicates.size(); i++) {
             logger.log(Level.INFO, "Preparing predicate number " + i);
-            if (!atomicPredicates.get(i).toPostfix(conditionParser)) {
+            if (!atomicPredicates.get(i).toPostfix(conditionParser, calculator)) {
                 logger.log(Level.INFO, "Cancelling translation");
                 return false;
             }
+            atomicPredicates.get(i).setTranslator(this);
         }
         return true;
     }
     
-    private void addToStatesTransitionBDD() {
-        statesTransitionBDD.orWith(currentTransitionBDD);
-    }
-    
-    private void addToPredicatesBDD(Map<Variable, String> currentValues) {
-        for (int i = 0; i < atomicPredicates.size(); i++) {
-            Boolean value = atomicPredicates.get(i).calculate(currentValues, 
-                    calculator);
-            if (value != null && value) {
-                atomicPredicates.get(i).addToBDD(currentStateBDD);
-            }
+    /*
+     * Transitions are kept apart for each location, so the transition 
+     * relation doesn't have to be built as a single BDD.
+     */
+    private void addToStatesTransitionBDD(int pc) {
+        DisjunctionBuilder transitionsBuilder = transitionsBuilders.get(pc);
+        if (transitionsBuilder == null) {
+            transitionsBuilder = new DisjunctionBuilder(factory, batchSize);
+            transitionsBuilders.put(pc, transitionsBuilder);
         }
+        transitionsBuilder.add(currentTransitionBDD);
     }
     
-    private boolean translateIf(List<Object> current, int pc) {
-        currentStateBDD = translateState(current, pc);
-        currentTransitionBDD = translateState(current, pc);
-        List<Object> transition = table.get(pc);
-        String comment = (String)transition.get(doubleVariablesNumber + 2);
-        int semicolonPosition = comment.lastIndexOf(SEMICOLON);
-        String condition = comment.substring(IF_SHIFT, semicolonPosition);
-        int thenPC = (Integer)transition.get(doubleVariablesNumber + 1);
-        int elsePC = Integer.parseInt(comment.substring(semicolonPosition + ELSE_SHIFT + 1));
-        Map<Variable, String> variableValues = new HashMap<>();
-        for (int i = 0; i < variables.size(); i++) {
-            if (current.get(i) == null) {
-                continue;
-            }
-            variableValues.put(variables.get(i), current.get(i).toString());
-        }
-        String conditionValueString = calculator.calculate(variableValues, condition, 
-                conditionParser.parseCondition(condition));
-        if (conditionValueString == null) {
-            logger.log(Level.ERROR, "Bad condition " + condition);
-            return false;
-        }
-        boolean conditionValue;
-        if (conditionValueString.equals(TRUE)) {
-            conditionValue = true;
-        }
-        else {
-            if (conditionValueString.equals(FALSE)) {
-                conditionValue = false;
-            }
-            else {
-                logger.log(Level.ERROR, "Bad condition " + condition);
-                return false;
-            }
-        }
-        if (conditionValue) {
-            currentTransitionBDD.andWith(translateNextState(current, thenPC));
-            addToStatesTransitionBDD();
-            addToPredicatesBDD(variableValues);
-            variableValues.clear();
-            variableValues = null;
-            StateType stateType;
-            try {
-                stateType = getNextStateType(thenPC);
-            }
-            catch (IllegalArgumentException ex) {
-                logger.log(Level.INFO, "Cancelling translation");
-                return false;
-            }
-            switch (stateType) {
-                case ASSIGN:
-                    logger.log(Level.INFO, "Translating assign");
-                    return translateAssign(current, thenPC);
-
-                case ELSE:
-                    logger.log(Level.INFO, "Translating else");
-                    return translateElse(current, thenPC);
-
-                case END_OF_GROUP:
-                    logger.log(Level.INFO, "Translating end of group");
-                    return translateEndOfGroup(current, thenPC);
-
-                case END_OF_PROGRAM:
-                    logger.log(Level.INFO, "Translating end of program");
-                    return translateEndOfProgram(current, thenPC);
-
-                case IF:
-                    logger.log(Level.INFO, "Transalting if");
-                    return translateIf(current, thenPC);
-
-                case READ:
-                    logger.log(Level.INFO, "Translating read");
-                    return translateRead(current, thenPC);
-
-                case WHILE:
-                    logger.log(Level.INFO, "Translating while");
-                    return translateWhile(current, thenPC);
-            }
-        }
-        else {
-            currentTransitionBDD.andWith(translateNextState(current, elsePC));
-            addToStatesTransitionBDD();
-            addToPredicatesBDD(variableValues);
-            variableValues.clear();
-            variableValues = null;
-            StateType stateType;
-            try {
-                stateType = getNextStateType(elsePC);
+    /*
+     * Returns indexes of variables which are referenced by the formula 
+     * and hold a value given by read (so they have to be enumerated before 
+     * the formula can be calculated); null if the formula references 
+     * a variable that has not been defined yet.
+     */
+    private List<Integer> getInputVariables(StateVector current, 
+            CompiledExpression formula) {
+        List<Integer> inputVariables = new ArrayList<>();
+        for (int variable : formula.getVariables()) {
+            if (current.isUndefined(variable)) {
+                return null;
             }
-            catch (IllegalArgumentException ex) {
-                logger.log(Level.INFO, "Cancelling translation");
-                return false;
-            }
-            switch (stateType) {
-                case ASSIGN:
-                    logger.log(Level.INFO, "Translating assign");
-                    return translateAssign(current, elsePC);
-
-                case ELSE:
-                    logger.log(Level.INFO, "Translating else");
-                    return translateElse(current, elsePC);
-
-                case END_OF_GROUP:
-                    logger.log(Level.INFO, "Translating end of group");
-                    return translateEndOfGroup(current, elsePC);
-
-                case END_OF_PROGRAM:
-                    logger.log(Level.INFO, "Translating end of program");
-                    return translateEndOfProgram(current, elsePC);
-
-                case IF:
-                    logger.log(Level.INFO, "Transalting if");
-                    return translateIf(current, elsePC);
-
-                case READ:
-                    logger.log(Level.INFO, "Translating read");
-                    return translateRead(current, elsePC);
-
-                case WHILE:
-                    logger.log(Level.INFO, "Translating while");
-                    return translateWhile(current, elsePC);
+            if (current.isInput(variable)) {
+                inputVariables.add(variable);
             }
         }
-        return false;
+        return inputVariables;
     }
     
-    private boolean translateElse(List<Object> current, int pc) {
-        currentStateBDD = translateState(current, pc);
-        currentTransitionBDD = translateState(current, pc);
-        List<Object> transition = table.get(pc);
-        int nextPC = (Integer)transition.get(doubleVariablesNumber + 1);
-        currentTransitionBDD.andWith(translateNextState(current, nextPC));
-        addToStatesTransitionBDD();
-        Map<Variable, String> variableValues = new HashMap<>();
-        for (int i = 0; i < variables.size(); i++) {
-            if (current.get(i) == null) {
-                continue;
-            }
-            variableValues.put(variables.get(i), current.get(i).toString());
-        }
-        addToPredicatesBDD(variableValues);
-        variableValues.clear();
-        variableValues = null;
-        
-        StateType stateType;
-        try {
-            stateType = getNextStateType(nextPC);
-        }
-        catch (IllegalArgumentException ex) {
-            logger.log(Level.INFO, "Cancelling translation");
-            return false;
-        }
-        switch (stateType) {
-            case ASSIGN:
-                logger.log(Level.INFO, "Translating assign");
-                return translateAssign(current, nextPC);
-            
-            case ELSE:
-                logger.log(Level.INFO, "Translating else");
-                return translateElse(current, nextPC);
-                
-            case END_OF_GROUP:
-                logger.log(Level.INFO, "Translating end of group");
-                return translateEndOfGroup(current, nextPC);
-                
-            case END_OF_PROGRAM:
-                logger.log(Level.INFO, "Translating end of program");
-                return translateEndOfProgram(current, nextPC);
-                
-            case IF:
-                logger.log(Level.INFO, "Transalting if");
-                return translateIf(current, nextPC);
-                
-            case READ:
-                logger.log(Level.INFO, "Translating read");
-                return translateRead(current, nextPC);
-                
-            case WHILE:
-                logger.log(Level.INFO, "Translating while");
-                return translateWhile(current, nextPC);
-        }
-        return false;
+    /*
+     * Fallback for values given by read, unless they are symbolic: 
+     * the state is split into a concrete state for each of their values.
+     */
+    private void translateInputs(StateVector current, 
+            List<Integer> inputVariables) {
+        next.copyFrom(current);
+        translateInputs(inputVariables, 0);
     }
     
-    private boolean translateWhile(List<Object> current, int pc) {
-        currentStateBDD = translateState(current, pc);
-        currentTransitionBDD = translateState(current, pc);
-        List<Object> transition = table.get(pc);
-        String comment = (String)transition.get(doubleVariablesNumber + 2);
-        int semicolonPosition = comment.lastIndexOf(SEMICOLON);
-        String condition = comment.substring(WHILE_SHIFT, semicolonPosition);
-        Integer thenPC = (Integer)transition.get(doubleVariablesNumber + 1);
-        Integer elsePC = Integer.parseInt(comment.substring(semicolonPosition + ELSE_SHIFT + 1));
-        Map<Variable, String> variableValues = new HashMap<>();
-        for (int i = 0; i < variables.size(); i++) {
-            if (current.get(i) == null) {
-                continue;
-            }
-            variableValues.put(variables.get(i), current.get(i).toString());
+    private void translateInputs(List<Integer> inputVariables, int position) {
+        if (position == inputVariables.size()) {
+            visitedStates.add(next);
+            return;
         }
-        String conditionValueString = calculator.calculate(variableValues, condition, 
-                conditionParser.parseCondition(condition));
-        if (conditionValueString == null) {
-            logger.log(Level.ERROR, "Bad condition " + condition);
-            return false;
-        }
-        boolean conditionValue;
-        if (conditionValueString.equals(TRUE)) {
-            conditionValue = true;
-        }
-        else {
-            if (conditionValueString.equals(FALSE)) {
-                conditionValue = false;
-            }
-            else {
-                logger.log(Level.ERROR, "Bad condition " + condition);
-                return false;
-            }
-        }
-        if (conditionValue) {
-            currentTransitionBDD.andWith(translateNextState(current, thenPC));
-            addToStatesTransitionBDD();
-            addToPredicatesBDD(variableValues);
-            variableValues.clear();
-            variableValues = null;
-            StateType stateType;
-            try {
-                stateType = getNextStateType(thenPC);
-            }
-            catch (IllegalArgumentException ex) {
-                logger.log(Level.INFO, "Cancelling translation");
-                return false;
-            }
-            switch (stateType) {
-                case ASSIGN:
-                    logger.log(Level.INFO, "Translating assign");
-                    return translateAssign(current, thenPC);
-
-                case ELSE:
-                    logger.log(Level.INFO, "Translating else");
-                    return translateElse(current, thenPC);
-
-                case END_OF_GROUP:
-                    logger.log(Level.INFO, "Translating end of group");
-                    return translateEndOfGroup(current, thenPC);
-
-                case END_OF_PROGRAM:
-                    logger.log(Level.INFO, "Translating end of program");
-                    return translateEndOfProgram(current, thenPC);
-
-                case IF:
-                    logger.log(Level.INFO, "Transalting if");
-                    return translateIf(current, thenPC);
-
-                case READ:
-                    logger.log(Level.INFO, "Translating read");
-                    return translateRead(current, thenPC);
-
-                case WHILE:
-                    logger.log(Level.INFO, "Translating while");
-                    return translateWhile(current, thenPC);
-            }
-        }
-        else {
-            currentTransitionBDD.andWith(translateNextState(current, elsePC));
-            addToStatesTransitionBDD();
-            addToPredicatesBDD(variableValues);
-            variableValues.clear();
-            variableValues = null;
-            StateType stateType;
-            try {
-                stateType = getNextStateType(elsePC);
-            }
-            catch (IllegalArgumentException ex) {
-                logger.log(Level.INFO, "Cancelling translation");
-                return false;
-            }
-            switch (stateType) {
-                case ASSIGN:
-                    logger.log(Level.INFO, "Translating assign");
-                    return translateAssign(current, elsePC);
-
-                case ELSE:
-                    logger.log(Level.INFO, "Translating else");
-                    return translateElse(current, elsePC);
-
-                case END_OF_GROUP:
-                    logger.log(Level.INFO, "Translating end of group");
-                    return translateEndOfGroup(current, elsePC);
-
-                case END_OF_PROGRAM:
-                    logger.log(Level.INFO, "Translating end of program");
-                    return translateEndOfProgram(current, elsePC);
-
-                case IF:
-                    logger.log(Level.INFO, "Transalting if");
-                    return translateIf(current, elsePC);
-
-                case READ:
-                    logger.log(Level.INFO, "Translating read");
-                    return translateRead(current, elsePC);
-
-                case WHILE:
-                    logger.log(Level.INFO, "Translating while");
-                    return translateWhile(current, elsePC);
-            }
+        int variableToRead = inputVariables.get(position);
+        Variable variable = variables.get(variableToRead);
+        for (int i = variable.getMinValue(); i <= variable.getMaxValue(); i++) {
+            next.setValue(variableToRead, (short) i);
+            translateInputs(inputVariables, position + 1);
         }
-        return false;
+        next.setInput(variableToRead);
     }
     
-    private boolean translateAssign(List<Object> current, int pc) {
-        currentStateBDD = translateState(current, pc);
-        currentTransitionBDD = translateState(current, pc);
-        List<Object> nextState = table.get(pc);
-        String comment = (String)nextState.get(doubleVariablesNumber + 2);
-        int nextPC = (Integer)nextState.get(doubleVariablesNumber + 1);
-        int variableToAssign = Integer.parseInt(comment.substring(ASSIGN_SHIFT));
-        List<Object> next = new ArrayList<>(current);
-        Map<Variable, String> variableValues = new HashMap<>();
-        for (int i = 0; i < variables.size(); i++) {
-            if (current.get(i) == null) {
-                continue;
-            }
-            variableValues.put(variables.get(i), current.get(i).toString());
-        }
-        String value = calculator.calculate(variableValues, comment, 
-                expressionParser.parseExpression((String)(table.get(pc).
-                        get(variablesNumber + variableToAssign))));
-        if (value == null) {
-            logger.log(Level.ERROR, "Cancelling transaltion");
-            return false;
-        }
-        switch (variables.get(variableToAssign).getType()) {
-            case INTEGER:
-                Short integerValue;
-                try {
-                    integerValue = Short.parseShort(value);
-                }
-                catch (NumberFormatException ex) {
-                    logger.log(Level.ERROR, ex);
-                    return false;
-                }
-                next.set(variableToAssign, integerValue);
-                break;
-        }
-        currentTransitionBDD.andWith(translateNextState(next, nextPC));
-        addToStatesTransitionBDD();
-        addToPredicatesBDD(variableValues);
-        variableValues.clear();
-        variableValues = null;
-        current = null;
-        StateType stateType;
-        try {
-            stateType = getNextStateType(nextPC);
+    private boolean translateNode(StateVector current) {
+        int pc = current.getPC();
+        Location location = pc < locations.length ? locations[pc] : null;
+        if (location == null) {
+            return translateEndOfProgram(current);
         }
-        catch (IllegalArgumentException ex) {
+        if (location.type == null) {
             logger.log(Level.INFO, "Cancelling translation");
             return false;
         }
-        switch (stateType) {
+        switch (location.type) {
             case ASSIGN:
-                logger.log(Level.INFO, "Translating assign");
-                return translateAssign(next, nextPC);
+                return translateAssign(current, location);
             
-            case ELSE:
-                logger.log(Level.INFO, "Translating else");
-                return translateElse(next, nextPC);
-                
-            case END_OF_GROUP:
-                logger.log(Level.INFO, "Translating end of group");
-                return translateEndOfGroup(next, nextPC);
-                
-            case END_OF_PROGRAM:
-                logger.log(Level.INFO, "Translating end of program");
-                return translateEndOfProgram(next, nextPC);
-                
             case IF:
-                logger.log(Level.INFO, "Transalting if");
-                return translateIf(next, nextPC);
+            case WHILE:
+                return translateCondition(current, location);
                 
             case READ:
-                logger.log(Level.INFO, "Translating read");
-                return translateRead(next, nextPC);
+                return translateRead(current, location);
                 
-            case WHILE:
-                logger.log(Level.INFO, "Translating while");
-                return translateWhile(next, nextPC);
+            case ELSE:
+            case END_OF_GROUP:
+                return translateJump(current, location);
         }
         return false;
     }
     
-    private boolean translateRead(List<Object> current, int pc) {
-        currentStateBDD = translateState(current, pc);
-        currentTransitionBDD = translateState(current, pc);
-        String currentForDebug = currentTransitionBDD.toString();
-        List<Object> nextState = table.get(pc);
-        String comment = (String)nextState.get(doubleVariablesNumber + 2);
-        int nextPC = (Integer)nextState.get(doubleVariablesNumber + 1);
-        int variableToRead = Integer.parseInt(comment.substring(READ_SHIFT));
-        List<Object> next = new ArrayList<>(current);
-        next.set(variableToRead, null);
-        currentTransitionBDD.andWith(translateNextState(next, nextPC));
-        addToStatesTransitionBDD();
-        Map<Variable, String> variableValues = new HashMap<>();
-        for (int i = 0; i < variables.size(); i++) {
-            if (current.get(i) == null) {
-                continue;
-            }
-            variableValues.put(variables.get(i), current.get(i).toString());
+    /*
+     * Statements are parsed once, before the states are explored, 
+     * so translating a state doesn't look into the table.
+     */
+    private void buildLocations() {
+        int maxPC = 0;
+        for (int pc : table.keySet()) {
+            maxPC = Math.max(maxPC, pc);
         }
-        addToPredicatesBDD(variableValues);
-        variableValues.clear();
-        variableValues = null;
-        current = null;
-        
-        Variable variable = variables.get(variableToRead);
-        StateType stateType;
+        locations = new Location[maxPC + 1];
+        for (Map.Entry<Integer, List<Object>> entry : table.entrySet()) {
+            locations[entry.getKey()] = buildLocation(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    private Location buildLocation(int pc, List<Object> transition) {
+        Location location = new Location();
         try {
-            stateType = getNextStateType(nextPC);
+            location.type = getNextStateType(pc);
         }
         catch (IllegalArgumentException ex) {
-            logger.log(Level.INFO, "Cancelling translation");
-            return false;
+            return location;
         }
-        switch (stateType) {
+        String comment = (String)transition.get(doubleVariablesNumber + 2);
+        switch (location.type) {
             case ASSIGN:
-                logger.log(Level.INFO, "Translating assign");
-                switch (variable.getType()) {
-                    case INTEGER:
-                        for (short i = Short.MIN_VALUE; i < Short.MAX_VALUE; i++) {
-                            next.set(variableToRead, i);
-                            if (!translateAssign(next, nextPC)) {
-                                return false;
-                            }
-                        }
-                        next.set(variableToRead, Short.MAX_VALUE);
-                        return translateAssign(next, nextPC);
-                }
-                break;
-            
-            case ELSE:
-                logger.log(Level.INFO, "Translating else");
-                switch (variable.getType()) {
-                    case INTEGER:
-                        for (short i = Short.MIN_VALUE; i < Short.MAX_VALUE; i++) {
-                            next.set(variableToRead, i);
-                            if (!translateElse(next, nextPC)) {
-                                return false;
-                            }
-                        }
-                        next.set(variableToRead, Short.MAX_VALUE);
-                        return translateElse(next, nextPC);
-                }
-                break;
-                
-            case END_OF_GROUP:
-                logger.log(Level.INFO, "Translating end of group");
-                switch (variable.getType()) {
-                    case INTEGER:
-                        for (short i = Short.MIN_VALUE; i < Short.MAX_VALUE; i++) {
-                            next.set(variableToRead, i);
-                            if (!translateEndOfGroup(next, nextPC)) {
-                                return false;
-                            }
-                        }
-                        next.set(variableToRead, Short.MAX_VALUE);
-                        return translateEndOfGroup(next, nextPC);
-                }
-                break;
-                
-            case END_OF_PROGRAM:
-                logger.log(Level.INFO, "Translating end of program");
-                switch (variable.getType()) {
-                    case INTEGER:
-                        for (short i = Short.MIN_VALUE; i < Short.MAX_VALUE; i++) {
-                            next.set(variableToRead, i);
-                            if (!translateEndOfProgram(next, nextPC)) {
-                                return false;
-                            }
-                        }
-                        next.set(variableToRead, Short.MAX_VALUE);
-                        return translateEndOfProgram(next, nextPC);
-                }
+                location.nextPC = (Integer)transition.get(doubleVariablesNumber + 1);
+                location.variable = Integer.parseInt(comment.substring(ASSIGN_SHIFT));
+                location.formula = comment;
+                location.compiledFormula = calculator.compile(comment, 
+                        expressionParser.parseExpression(
+                        (String)transition.get(variablesNumber + location.variable)));
+                // with symbolic values, division by zero may be deferred
+                location.compiledFormula.setDivisionByZeroLogged(!isSymbolicInputs);
                 break;
                 
             case IF:
-                logger.log(Level.INFO, "Transalting if");
-                switch (variable.getType()) {
-                    case INTEGER:
-                        for (short i = Short.MIN_VALUE; i < Short.MAX_VALUE; i++) {
-                            next.set(variableToRead, i);
-                            if (!translateIf(next, nextPC)) {
-                                return false;
-                            }
-                        }
-                        next.set(variableToRead, Short.MAX_VALUE);
-                        return translateIf(next, nextPC);
-                }
+            case WHILE:
+                int semicolonPosition = comment.lastIndexOf(SEMICOLON);
+                location.formula = comment.substring(location.type == StateType.IF ? 
+                        IF_SHIFT : WHILE_SHIFT, semicolonPosition);
+                location.compiledFormula = calculator.compile(location.formula, 
+                        conditionParser.parseCondition(location.formula));
+                location.compiledFormula.setDivisionByZeroLogged(!isSymbolicInputs);
+                location.nextPC = (Integer)transition.get(doubleVariablesNumber + 1);
+                location.elsePC = Integer.parseInt(comment.substring(
+                        semicolonPosition + ELSE_SHIFT + 1));
                 break;
                 
             case READ:
-                logger.log(Level.INFO, "Translating read");
-                switch (variable.getType()) {
-                    case INTEGER:
-                        for (short i = Short.MIN_VALUE; i < Short.MAX_VALUE; i++) {
-                            next.set(variableToRead, i);
-                            if (!translateRead(next, nextPC)) {
-                                return false;
-                            }
-                        }
-                        next.set(variableToRead, Short.MAX_VALUE);
-                        return translateRead(next, nextPC);
-                }
+                location.nextPC = (Integer)transition.get(doubleVariablesNumber + 1);
+                location.variable = Integer.parseInt(comment.substring(READ_SHIFT));
                 break;
                 
-            case WHILE:
-                logger.log(Level.INFO, "Translating while");
-                switch (variable.getType()) {
-                    case INTEGER:
-                        for (short i = Short.MIN_VALUE; i < Short.MAX_VALUE; i++) {
-                            next.set(variableToRead, i);
-                            if (!translateWhile(next, nextPC)) {
-                                return false;
-                            }
-                        }
-                        next.set(variableToRead, Short.MAX_VALUE);
-                        return translateWhile(next, nextPC);
+            case END_OF_GROUP:
+                if (comment.startsWith(WHILE_STATE)) {
+                    location.nextPC = Integer.parseInt(comment.substring(WHILE_SHIFT, 
+                            comment.length() - ENDS_SHIFT));
+                    break;
                 }
+                location.nextPC = (Integer)transition.get(doubleVariablesNumber + 1);
+                break;
+                
+            default:
+                location.nextPC = (Integer)transition.get(doubleVariablesNumber + 1);
                 break;
         }
-        return false;
+        return location;
     }
     
-    private boolean translateEndOfGroup(List<Object> current, int pc) {
-        currentStateBDD = translateState(current, pc);
-        currentTransitionBDD = translateState(current, pc);
-        List<Object> transition = table.get(pc);
-        String comment = (String)transition.get(doubleVariablesNumber + 2);
-        Map<Variable, String> variableValues = new HashMap<>();
-        for (int i = 0; i < variables.size(); i++) {
-            if (current.get(i) == null) {
-                continue;
+    private Boolean calculateCondition(StateVector current, Location location) {
+        int conditionValue = location.compiledFormula.evaluate(current);
+        if (conditionValue == CompiledExpression.ERROR 
+                || !location.compiledFormula.isCondition()) {
+            return null;
+        }
+        return conditionValue != 0;
+    }
+    
+    /*
+     * Both if and while go to the next location if the condition holds 
+     * and to the else location otherwise.
+     */
+    private boolean translateCondition(StateVector current, Location location) {
+        List<Integer> inputVariables = getInputVariables(current, 
+                location.compiledFormula);
+        if (inputVariables != null && !inputVariables.isEmpty()) {
+            if (isSymbolicInputs) {
+                return translateSymbolicCondition(current, location, inputVariables);
             }
-            variableValues.put(variables.get(i), current.get(i).toString());
-        }
-        if (!comment.startsWith(WHILE_STATE)) {
-            Integer nextPC = (Integer)transition.get(doubleVariablesNumber + 1);
-            currentTransitionBDD.andWith(translateNextState(current, nextPC));
-            addToStatesTransitionBDD();
-            addToPredicatesBDD(variableValues);
-            variableValues.clear();
-            variableValues = null;
-            
-            StateType stateType;
-            try {
-                stateType = getNextStateType(nextPC);
+            translateInputs(current, inputVariables);
+            return true;
+        }
+        Boolean conditionValue = calculateCondition(current, location);
+        if (conditionValue == null) {
+            if (deferDivisionByZero(current, location)) {
+                return true;
             }
-            catch (IllegalArgumentException ex) {
-                logger.log(Level.INFO, "Cancelling translation");
-                return false;
+            logger.log(Level.ERROR, "Bad condition " + location.formula);
+            return false;
+        }
+        next.copyFrom(current);
+        next.setPC(conditionValue ? location.nextPC : location.elsePC);
+        addTransition(current, -1);
+        return true;
+    }
+    
+    private boolean translateJump(StateVector current, Location location) {
+        next.copyFrom(current);
+        next.setPC(location.nextPC);
+        addTransition(current, -1);
+        return true;
+    }
+    
+    private boolean translateAssign(StateVector current, Location location) {
+        List<Integer> inputVariables = getInputVariables(current, 
+                location.compiledFormula);
+        if (inputVariables != null && !inputVariables.isEmpty()) {
+            if (isSymbolicInputs) {
+                return translateSymbolicAssign(current, location, inputVariables);
             }
-            switch (stateType) {
-                case ASSIGN:
-                    logger.log(Level.INFO, "Translating assign");
-                    return translateAssign(current, nextPC);
-
-                case ELSE:
-                    logger.log(Level.INFO, "Translating else");
-                    return translateElse(current, nextPC);
-
-                case END_OF_GROUP:
-                    logger.log(Level.INFO, "Translating end of group");
-                    return translateEndOfGroup(current, nextPC);
-
-                case END_OF_PROGRAM:
-                    logger.log(Level.INFO, "Translating end of program");
-                    return translateEndOfProgram(current, nextPC);
-
-                case IF:
-                    logger.log(Level.INFO, "Transalting if");
-                    return translateIf(current, nextPC);
-
-                case READ:
-                    logger.log(Level.INFO, "Translating read");
-                    return translateRead(current, nextPC);
-
-                case WHILE:
-                    logger.log(Level.INFO, "Translating while");
-                    return translateWhile(current, nextPC);
+            translateInputs(current, inputVariables);
+            return true;
+        }
+        int value = location.compiledFormula.evaluate(current, 
+                variables.get(location.variable));
+        if (value == CompiledExpression.ERROR) {
+            if (deferDivisionByZero(current, location)) {
+                return true;
             }
+            logger.log(Level.ERROR, "Cancelling transaltion");
+            return false;
         }
-        else {
-            Integer nextPC = Integer.parseInt(comment.substring(WHILE_SHIFT, 
-                    comment.length() - ENDS_SHIFT));
-            currentTransitionBDD.andWith(translateNextState(current, nextPC));
-            addToStatesTransitionBDD();
-            addToPredicatesBDD(variableValues);
-            variableValues.clear();
-            variableValues = null;
-            return translateWhile(current, nextPC);
+        next.copyFrom(current);
+        next.setPC(location.nextPC);
+        next.setValue(location.variable, (short) value);
+        addTransition(current, -1);
+        return true;
+    }
+    
+    /*
+     * The state goes to both locations, as far as the values of its input 
+     * variables allow.
+     */
+    private boolean translateSymbolicCondition(StateVector current, Location location, 
+            List<Integer> inputVariables) {
+        BDD conditionBDD = getSymbolicBDD(location);
+        if (conditionBDD == null) {
+            logger.log(Level.ERROR, "Bad condition " + location.formula);
+            return false;
         }
-        return false;
+        currentStateBDD = encoder.encodeState(current);
+        BDD domainBDD = encodeDomains(inputVariables);
+        domainBDD.andWith(excludeDivisionByZero(location, domainBDD));
+        next.copyFrom(current);
+        next.setPC(location.nextPC);
+        addNextState(current.getPC(), -1, conditionBDD.and(domainBDD));
+        next.copyFrom(current);
+        next.setPC(location.elsePC);
+        addNextState(current.getPC(), -1, conditionBDD.not().andWith(domainBDD));
+        labelState(current);
+        currentStateBDD.free();
+        return true;
     }
     
-    private boolean translateEndOfProgram(List<Object> current, int pc) {
-        currentStateBDD = translateState(current, pc);
-        currentTransitionBDD = translateState(current, pc);
-        currentTransitionBDD.andWith(translateNextState(current, pc));
-        addToStatesTransitionBDD();
-        Map<Variable, String> variableValues = new HashMap<>();
-        for (int i = 0; i < variables.size(); i++) {
-            if (current.get(i) == null) {
-                continue;
-            }
-            variableValues.put(variables.get(i), current.get(i).toString());
+    /*
+     * The assigned variable becomes an input variable, which keeps the value 
+     * the transition gives it.
+     */
+    private boolean translateSymbolicAssign(StateVector current, Location location, 
+            List<Integer> inputVariables) {
+        BDD assignmentBDD = getSymbolicBDD(location);
+        if (assignmentBDD == null) {
+            logger.log(Level.ERROR, location.formula + " can't be assigned to " 
+                    + variables.get(location.variable).getName());
+            logger.log(Level.ERROR, "Cancelling transaltion");
+            return false;
         }
-        addToPredicatesBDD(variableValues);
-        variableValues.clear();
-        variableValues = null;
-        current = null;
+        currentStateBDD = encoder.encodeState(current);
+        BDD domainBDD = encodeDomains(inputVariables);
+        domainBDD.andWith(excludeDivisionByZero(location, domainBDD));
+        next.copyFrom(current);
+        next.setPC(location.nextPC);
+        next.setInput(location.variable);
+        addNextState(current.getPC(), location.variable, 
+                domainBDD.andWith(assignmentBDD.id()));
+        labelState(current);
+        currentStateBDD.free();
         return true;
     }
     
-    private BDD translateInteger(int startBDDVariable, int endBDDVariable, short value) {
-        String binaryString = Integer.toBinaryString(0xFFFF & value);
-        int binaryLength = binaryString.length();
-        for (int i = INTEGER_SIZE; i > binaryLength; i--) {
-            binaryString = ZERO_STRING + binaryString;
+    /*
+     * The BDD of a location is built on the first visit and kept until 
+     * the states are explored.
+     */
+    private BDD getSymbolicBDD(Location location) {
+        if (!location.isEncoded) {
+            location.symbolicBDD = location.type == StateType.ASSIGN ? 
+                    expressionEncoder.encodeAssignment(location.compiledFormula, 
+                    location.variable) : 
+                    expressionEncoder.encodeCondition(location.compiledFormula);
+            location.divisionByZeroBDD = expressionEncoder.takeDivisionByZero();
+            location.isEncoded = true;
         }
-        BDD resultBdd = binaryString.charAt(0) == ZERO_CHAR ? 
-                factory.nithVar(startBDDVariable) : factory.ithVar(startBDDVariable);
-        for (int i = startBDDVariable + 1; i < endBDDVariable; i++) {
-            if (binaryString.charAt(i - startBDDVariable) == ZERO_CHAR) { 
-                resultBdd.andWith(factory.nithVar(i));
-            }
-            else {
-                resultBdd.andWith(factory.ithVar(i));
-            }
+        return location.symbolicBDD;
+    }
+    
+    /*
+     * Values of the current state dividing by zero are remembered, so 
+     * the translation is cancelled if they are reachable; the transitions 
+     * are restricted by the returned BDD, so such values get none of them.
+     */
+    private BDD excludeDivisionByZero(Location location, BDD domainBDD) {
+        BDD statesBDD = location.divisionByZeroBDD.and(domainBDD)
+                .andWith(currentStateBDD.id());
+        divisionByZeroStatesBDD.orWith(statesBDD);
+        return location.divisionByZeroBDD.not();
+    }
+    
+    /*
+     * With symbolic values, explored states may be unreachable, so a concrete 
+     * state dividing by zero is remembered and gets no transition, like 
+     * symbolic values, instead of cancelling the translation at once.
+     */
+    private boolean deferDivisionByZero(StateVector current, Location location) {
+        if (!isSymbolicInputs || getInputVariables(current, 
+                location.compiledFormula) == null || getSymbolicBDD(location) == null) {
+            return false;
+        }
+        currentStateBDD = encoder.encodeState(current);
+        BDD statesBDD = location.divisionByZeroBDD.and(currentStateBDD);
+        boolean isDividing = !statesBDD.isZero();
+        if (isDividing) {
+            divisionByZeroStatesBDD.orWith(statesBDD);
+            labelState(current);
         }
-        return resultBdd;
+        else {
+            statesBDD.free();
+        }
+        currentStateBDD.free();
+        return isDividing;
     }
     
-    private BDD translatePC(int startBDDVariable, int endBDDVariable, int value) {
-        String binaryString = Integer.toBinaryString(value);
-        int binaryLength = binaryString.length();
-        for (int i = PC_SIZE; i > binaryLength; i--) {
-            binaryString = ZERO_STRING + binaryString;
+    /*
+     * Values the symbolic state takes may be unreachable, so division 
+     * by zero is an error only if the states dividing by zero are reachable 
+     * from the start states: it's checked as the invariant of not dividing 
+     * by zero, partitions kept apart, so the search stops at the first of them.
+     */
+    private boolean isDivisionByZeroReachable() {
+        int[] currentVariables = getStateVariables(0);
+        TransitionRelation transitionRelation = new TransitionRelation(factory, 
+                statesTransitionPartitions, currentVariables, 
+                getStateVariables(halfVariablesNumberBDD), 0);
+        InvariantChecker checker = new InvariantChecker(factory, transitionRelation, 
+                startStatesBDD, divisionByZeroStatesBDD, currentVariables);
+        boolean isReachable = !checker.check();
+        if (isReachable) {
+            BDD statesBDD = checker.getFirstViolatingStates();
+            logDivisionByZero(statesBDD);
+            statesBDD.free();
         }
-        BDD resultBdd = binaryString.charAt(0) == ZERO_CHAR ? 
-                factory.nithVar(startBDDVariable) : factory.ithVar(startBDDVariable);
-        for (int i = startBDDVariable + 1; i < endBDDVariable; i++) {
-            if (binaryString.charAt(i - startBDDVariable) == ZERO_CHAR) { 
-                resultBdd.andWith(factory.nithVar(i));
+        checker.free();
+        transitionRelation.free();
+        return isReachable;
+    }
+    
+    private void logDivisionByZero(BDD statesBDD) {
+        for (int pc = 0; pc < locations.length; pc++) {
+            Location location = locations[pc];
+            if (location == null || location.divisionByZeroBDD == null) {
+                continue;
             }
-            else {
-                resultBdd.andWith(factory.ithVar(i));
+            BDD violatingBDD = encoder.encodePC(pc).andWith(statesBDD.id())
+                    .andWith(location.divisionByZeroBDD.id());
+            if (!violatingBDD.isZero()) {
+                logger.log(Level.ERROR, "Division by zero in " + location.formula);
             }
+            violatingBDD.free();
         }
-        return resultBdd;
+        logger.log(Level.INFO, "Cancelling translation");
     }
     
-    private BDD translateState(List<Object> state, int pc) {
-        BDD stateResult = translatePC(0, PC_SIZE, pc);
-        int currentLength = state.size(), start = PC_SIZE, end = PC_SIZE;
-        for (int i = 0; i < currentLength; i++) {
-            Object currentVariable = state.get(i);
-            if (currentVariable == null) {
-                switch (variables.get(i).getType()) {
-                    case INTEGER:
-                        start += INTEGER_SIZE;
-                        break;
-                }
+    private int[] getStateVariables(int start) {
+        return Arrays.copyOfRange(bddVariables, start, start + halfVariablesNumberBDD);
+    }
+    
+    private BDD encodeDomains(List<Integer> inputVariables) {
+        BDD domainBDD = factory.one();
+        for (int variable : inputVariables) {
+            domainBDD.andWith(expressionEncoder.encodeDomain(variable));
+        }
+        return domainBDD;
+    }
+    
+    private void freeLocations() {
+        for (Location location : locations) {
+            if (location != null && location.symbolicBDD != null) {
+                location.symbolicBDD.free();
             }
-            else {
-                switch (variables.get(i).getType()) {
-                    case INTEGER:
-                        end = start + INTEGER_SIZE;
-                        stateResult.andWith(translateInteger(start, end, 
-                                (Short)currentVariable));
-                        break;
-                }
-                start = end;
+            if (location != null && location.divisionByZeroBDD != null) {
+                location.divisionByZeroBDD.free();
             }
         }
-        return stateResult;
-    }
-    
-    private BDD translateNextState(List<Object> state, int pc) {
-        BDD stateResult = translatePC(halfVariablesNumberBDD, 
-                halfVariablesNumberBDD + PC_SIZE, pc);
-        int currentLength = state.size(), start = PC_SIZE + halfVariablesNumberBDD, 
-                end = PC_SIZE + halfVariablesNumberBDD;
-        for (int i = 0; i < currentLength; i++) {
-            Object currentVariable = state.get(i);
-            if (currentVariable == null) {
-                switch (variables.get(i).getType()) {
-                    case INTEGER:
-                        start += INTEGER_SIZE;
-                        break;
-                }
+        locations = null;
+    }
+    
+    private boolean translateRead(StateVector current, Location location) {
+        next.copyFrom(current);
+        next.setPC(location.nextPC);
+        next.setInput(location.variable);
+        addTransition(current, location.variable);
+        return true;
+    }
+    
+    private boolean translateEndOfProgram(StateVector current) {
+        next.copyFrom(current);
+        addTransition(current, -1);
+        return true;
+    }
+    
+    /*
+     * Adds the transition from current to the next state, labels current 
+     * and puts the next state on the frontier.
+     */
+    private void addTransition(StateVector current, int freeVariable) {
+        currentStateBDD = encoder.encodeState(current);
+        addNextState(current.getPC(), freeVariable, null);
+        labelState(current);
+        currentStateBDD.free();
+    }
+    
+    /*
+     * Adds the transition from currentStateBDD to the next state, restricted 
+     * by the constraint (which is consumed) unless it is null, and puts 
+     * the next state on the frontier, unless the constraint leaves 
+     * no transition.
+     */
+    private void addNextState(int pc, int freeVariable, BDD constraint) {
+        currentTransitionBDD = currentStateBDD.id();
+        currentTransitionBDD.andWith(encoder.encodeNextState(next, freeVariable));
+        if (constraint != null) {
+            currentTransitionBDD.andWith(constraint);
+            if (currentTransitionBDD.isZero()) {
+                currentTransitionBDD.free();
+                return;
             }
-            else {
-                switch (variables.get(i).getType()) {
-                    case INTEGER:
-                        end = start + INTEGER_SIZE;
-                        stateResult.andWith(translateInteger(start, end, 
-                                (Short)currentVariable));
-                        break;
-                }
-                start = end;
+        }
+        addToStatesTransitionBDD(pc);
+        visitedStates.add(next);
+    }
+    
+    /*
+     * States are collected by their undefined variables, so an atomic 
+     * predicate takes the states where it can be calculated at once.
+     */
+    private void labelState(StateVector current) {
+        undefinedVariables.clear();
+        for (int i = 0; i < variablesNumber; i++) {
+            if (current.isUndefined(i)) {
+                undefinedVariables.set(i);
             }
         }
-        return stateResult;
+        DisjunctionBuilder labelsBuilder = labelsBuilders.get(undefinedVariables);
+        if (labelsBuilder == null) {
+            labelsBuilder = new DisjunctionBuilder(factory, batchSize);
+            labelsBuilders.put((BitSet)undefinedVariables.clone(), labelsBuilder);
+        }
+        labelsBuilder.add(currentStateBDD.id());
     }
     
     private enum StateType {
@@ -983,6 +1105,24 @@ public class KripkeStructureTranslator {
         END_OF_GROUP
     }
     
+    /*
+     * Statement of a location, taken from the table once: where it goes 
+     * and its condition or expression compiled (and encoded, if values 
+     * are symbolic); type is null if the statement is unknown.
+     */
+    private static class Location {
+        
+        private StateType type;
+        private int nextPC;
+        private int elsePC;
+        private int variable;
+        private String formula;
+        private CompiledExpression compiledFormula;
+        private boolean isEncoded;
+        private BDD symbolicBDD;
+        private BDD divisionByZeroBDD;
+    }
+    
     private StateType getNextStateType(int pc) {
         List<Object> nextNode = table.get(pc);
         if (nextNode == null) {
@@ -1017,6 +1157,6 @@ public class KripkeStructureTranslator {
     }
     
     private void setStartState(int pc) {
-        startStatesBDD = translatePC(0, PC_SIZE, pc);
+        startStatesBDD = encoder.encodePC(pc);
     }
 }
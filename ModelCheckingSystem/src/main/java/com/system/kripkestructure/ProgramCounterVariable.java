@@ -7,15 +7,21 @@ package com.system.kripkestructure;
 public class ProgramCounterVariable implements Variable {
     
     private final String name;
+    private final int size;
     private static final VariableType TYPE = VariableType.PC;
-    private static final int SIZE = 8;
     
     /**
      *
-     * @param name A name of this IntegerVariable.
+     * @param name A name of this ProgramCounterVariable.
+     * @param size Number of bits of the program counter; it depends on 
+     * the number of program locations.
      */
-    public ProgramCounterVariable(String name) {
+    public ProgramCounterVariable(String name, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException();
+        }
         this.name = name;
+        this.size = size;
     }
 
     /**
@@ -38,11 +44,29 @@ public class ProgramCounterVariable implements Variable {
     
     /**
      *
-     * @return Number of bits for variable of <i>PC</i> type; it's 8 for now.
+     * @return Number of bits of the program counter.
      */
     @Override
     public int getSize() {
-        return SIZE;
+        return size;
+    }
+    
+    /**
+     *
+     * @return 0
+     */
+    @Override
+    public int getMinValue() {
+        return 0;
+    }
+    
+    /**
+     *
+     * @return The greatest value of the program counter.
+     */
+    @Override
+    public int getMaxValue() {
+        return (1 << size) - 1;
     }
     
     @Override
@@ -27,9 +27,10 @@ class ProgramTableBuilder {
     private static final String ELSE = "else";
     private static final String BEGIN = "{";
     private static final String END = "}";
-    private static final String EXPRESSION = "^[a-zA-Z]\\w*\\s*=\\s*"
-            + "[\\(\\w\\+\\-\\*/\\)\\s]+$";
+    private static final String EXPRESSION = "^[a-zA-Z]\\w*\\s*=(?!=)\\s*"
+            + "[\\(\\w\\+\\-\\*/><!=\\|&\\)\\s]+$";
     private static final String READ = "^read\\s*\\(\\s*[a-zA-Z]\\w*\\s*\\)$";
+    private static final String BOOLEAN_CONSTANT = "^(true|false)$";
     private static final String POSSIBLE = "^[\\(\\w\\+\\-\\*/\\)\\s]+$";
     private static final String UNDEFINED = "UNDEFINED";
     private static final String DEFINED = "DEFINED";
@@ -219,7 +220,7 @@ class ProgramTableBuilder {
     }
 
     private boolean translateAssignment() {
-        String[] expressionParts = operators.get(counter).split("=");
+        String[] expressionParts = operators.get(counter).split("=", 2);
         int size = 2;
         if (expressionParts.length != size) {
             logger.log(Level.ERROR, "Wrong assignment: " + operators.get(counter));
@@ -233,7 +234,7 @@ class ProgramTableBuilder {
             logger.log(Level.ERROR, "There is no " + expressionParts[0] + " variable");
             return false;
         }
-        if (!isExpressionAllowed(expressionParts[1])) {
+        if (!isConditionAllowed(expressionParts[1])) {
             logger.log(Level.ERROR, "Unknown identificator in " + expressionParts[1]);
             return false;
         }
@@ -601,11 +602,6 @@ class ProgramTableBuilder {
         return variableNotFound;
     }
     
-    private boolean isExpressionAllowed(String expression) {
-        String[] parts = expression.split("[\\+\\-\\*/]");
-        return arePartsValid(parts);
-    }
-    
     private boolean isConditionAllowed(String condition) {
         String[] parts = condition.split("[\\+\\-\\*/=!><&\\|]");
         return arePartsValid(parts);
@@ -623,7 +619,8 @@ class ProgramTableBuilder {
             while (parts[i].charAt(parts[i].length() - 1) == ')') {
                 parts[i] = parts[i].substring(0, parts[i].length() - 1).trim();
             }
-            if (!variablesNames.contains(parts[i]) && !parts[i].isEmpty() && !parts[i].matches("^\\d+$")) {
+            if (!variablesNames.contains(parts[i]) && !parts[i].isEmpty() && 
+                    !parts[i].matches("^\\d+$") && !parts[i].matches(BOOLEAN_CONSTANT)) {
                 return false;
             }
         }
@@ -0,0 +1,86 @@
+package com.system.kripkestructure;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class RangedIntegerVariable implements Variable {
+    
+    private final String name;
+    private final int minValue;
+    private final int maxValue;
+    private final int size;
+    private static final VariableType TYPE = VariableType.INTEGER;
+    
+    /**
+     *
+     * @param name A name of this RangedIntegerVariable.
+     * @param minValue The least value of this variable.
+     * @param maxValue The greatest value of this variable; both bounds have 
+     * to fit 16 bits.
+     */
+    public RangedIntegerVariable(String name, int minValue, int maxValue) {
+        if (minValue > maxValue || minValue < Short.MIN_VALUE || 
+                maxValue > Short.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+        this.name = name;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        int bits = 1;
+        while ((1 << bits) <= maxValue - minValue) {
+            bits++;
+        }
+        size = bits;
+    }
+
+    /**
+     *
+     * @return A name of this RangedIntegerVariable.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     *
+     * @return VariableType.INTEGER
+     */
+    @Override
+    public VariableType getType() {
+        return TYPE;
+    }
+    
+    /**
+     *
+     * @return Number of bits needed for all values of the range.
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+    
+    @Override
+    public int getMinValue() {
+        return minValue;
+    }
+    
+    @Override
+    public int getMaxValue() {
+        return maxValue;
+    }
+    
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+    
+    @Override
+    public boolean equals(Object another) {
+        if (another == null || !(another instanceof RangedIntegerVariable)) {
+            return false;
+        }
+        return name.equals(((RangedIntegerVariable)another).getName());
+    }
+}
@@ -0,0 +1,293 @@
+package com.system.kripkestructure;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class StateEncoder {
+
+    private static final int CUBES_CACHE_SIZE = 1 << 12;
+    private static final byte FREE = -1;
+
+    private final BDDFactory factory;
+    private final int[] bddVariables;
+    private final int pcSize;
+    private final int[] variablesOffsets;
+    private final int[] variablesSizes;
+    private final int[] variablesMinValues;
+    private final int[] variablesMaxValues;
+    private final int halfVariablesNumberBDD;
+    private final BDD[] literals;
+    private final BDD[] negatedLiterals;
+    private final BDD[] frames;
+    private final BDD[] domains;
+    private final byte[] assignment;
+    private final int[] levelToVariable;
+    private final long[] packed;
+    private final Map<CubeKey, BDD> nextCubes;
+
+    /**
+     *
+     * @param factory BDDFactory with all variables of the Kripke structure.
+     * @param bddVariables BDD variable of each bit: bits of the program counter 
+     * and of program variables, then their next state copies.
+     * @param pcSize Number of bits of the program counter.
+     * @param variablesOffsets Index of the first BDD variable of each program
+     * variable.
+     * @param variablesSizes Number of bits of each program variable.
+     * @param variablesMinValues The least value of each program variable;
+     * a value is encoded as the offset from it.
+     * @param variablesMaxValues The greatest value of each program variable.
+     * @param halfVariablesNumberBDD Shift between current and next state
+     * BDD variables.
+     */
+    public StateEncoder(BDDFactory factory, int[] bddVariables, int pcSize, 
+            int[] variablesOffsets, int[] variablesSizes, int[] variablesMinValues, 
+            int[] variablesMaxValues, int halfVariablesNumberBDD) {
+        this.factory = factory;
+        this.bddVariables = bddVariables;
+        this.pcSize = pcSize;
+        this.variablesOffsets = variablesOffsets;
+        this.variablesSizes = variablesSizes;
+        this.variablesMinValues = variablesMinValues;
+        this.variablesMaxValues = variablesMaxValues;
+        this.halfVariablesNumberBDD = halfVariablesNumberBDD;
+        int variablesNumberBDD = halfVariablesNumberBDD * 2;
+        literals = new BDD[variablesNumberBDD];
+        negatedLiterals = new BDD[variablesNumberBDD];
+        for (int i = 0; i < variablesNumberBDD; i++) {
+            literals[i] = factory.ithVar(bddVariables[i]);
+            negatedLiterals[i] = factory.nithVar(bddVariables[i]);
+        }
+        frames = new BDD[variablesOffsets.length];
+        domains = new BDD[variablesOffsets.length];
+        assignment = new byte[variablesNumberBDD];
+        Arrays.fill(assignment, FREE);
+        levelToVariable = new int[variablesNumberBDD];
+        updateOrder();
+        packed = new long[new StateVector(variablesOffsets.length).getPackedLength()];
+        nextCubes = new LinkedHashMap<CubeKey, BDD>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CubeKey, BDD> eldest) {
+                if (size() > CUBES_CACHE_SIZE) {
+                    eldest.getValue().free();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cubes are built bottom-up, so the encoder has to know the current
+     * variable order; call it after the factory has reordered variables.
+     */
+    public void updateOrder() {
+        for (int i = 0; i < levelToVariable.length; i++) {
+            levelToVariable[factory.var2Level(bddVariables[i])] = i;
+        }
+    }
+
+    /**
+     *
+     * @param pc Value of the program counter.
+     * @return Cube over current state variables fixing the program counter only.
+     */
+    public BDD encodePC(int pc) {
+        assign(0, pcSize, pc);
+        return buildCube();
+    }
+
+    /**
+     *
+     * @param variable Index of a program variable.
+     * @param value Value of the variable.
+     * @return Cube over current state variables fixing the variable only.
+     */
+    public BDD encodeValue(int variable, int value) {
+        assign(variablesOffsets[variable], variablesSizes[variable],
+                value - variablesMinValues[variable]);
+        return buildCube();
+    }
+
+    /**
+     *
+     * @param state A state of the Kripke structure.
+     * @return Cube over current state variables; bits of variables without
+     * a concrete value stay free.
+     */
+    public BDD encodeState(StateVector state) {
+        assignState(state, 0);
+        return buildCube();
+    }
+
+    /**
+     * Variables holding a value given by read keep their current value,
+     * except freeVariable, which may take any value of its range. The same
+     * state is usually the successor of several states, so these BDDs
+     * are memoized.
+     *
+     * @param state A successor state of the Kripke structure.
+     * @param freeVariable Index of the variable being read, -1 if none.
+     * @return BDD over next state variables.
+     */
+    public BDD encodeNextState(StateVector state, int freeVariable) {
+        state.pack(packed, 0);
+        CubeKey key = new CubeKey(packed, freeVariable);
+        BDD result = nextCubes.get(key);
+        if (result != null) {
+            return result.id();
+        }
+        assignState(state, halfVariablesNumberBDD);
+        result = buildCube();
+        if (freeVariable != -1) {
+            result.andWith(encodeDomain(freeVariable));
+        }
+        for (int i = 0; i < variablesOffsets.length; i++) {
+            if (state.isInput(i) && i != freeVariable) {
+                result.andWith(encodeFrame(i));
+            }
+        }
+        nextCubes.put(key, result);
+        return result.id();
+    }
+
+    /**
+     *
+     * @param variable Index of a program variable.
+     * @return BDD stating that the variable keeps its value.
+     */
+    public BDD encodeFrame(int variable) {
+        if (frames[variable] == null) {
+            int start = variablesOffsets[variable];
+            int end = start + variablesSizes[variable];
+            BDD frameBDD = factory.one();
+            for (int i = end - 1; i >= start; i--) {
+                frameBDD.andWith(literals[i].biimp(literals[i + halfVariablesNumberBDD]));
+            }
+            frames[variable] = frameBDD;
+        }
+        return frames[variable].id();
+    }
+
+    /**
+     *
+     * @param variable Index of a program variable.
+     * @return BDD over next state variables allowing exactly the values
+     * of the range of the variable.
+     */
+    public BDD encodeDomain(int variable) {
+        if (domains[variable] == null) {
+            int start = variablesOffsets[variable] + halfVariablesNumberBDD;
+            int size = variablesSizes[variable];
+            int maxOffset = variablesMaxValues[variable] - variablesMinValues[variable];
+            BDD domainBDD = factory.one();
+            for (int i = size - 1; i >= 0; i--) {
+                if (((maxOffset >> (size - 1 - i)) & 1) == 1) {
+                    domainBDD = negatedLiterals[start + i].id().orWith(domainBDD);
+                }
+                else {
+                    domainBDD = negatedLiterals[start + i].id().andWith(domainBDD);
+                }
+            }
+            domains[variable] = domainBDD;
+        }
+        return domains[variable].id();
+    }
+
+    /**
+     * Frees all BDDs held by the encoder.
+     */
+    public void free() {
+        for (BDD cube : nextCubes.values()) {
+            cube.free();
+        }
+        nextCubes.clear();
+        for (int i = 0; i < frames.length; i++) {
+            if (frames[i] != null) {
+                frames[i].free();
+                frames[i] = null;
+            }
+            if (domains[i] != null) {
+                domains[i].free();
+                domains[i] = null;
+            }
+        }
+        for (int i = 0; i < literals.length; i++) {
+            literals[i].free();
+            negatedLiterals[i].free();
+        }
+    }
+
+    private void assignState(StateVector state, int shift) {
+        assign(shift, pcSize, state.getPC());
+        for (int i = 0; i < variablesOffsets.length; i++) {
+            if (state.isDefined(i)) {
+                assign(variablesOffsets[i] + shift, variablesSizes[i],
+                        state.getValue(i) - variablesMinValues[i]);
+            }
+        }
+    }
+
+    /*
+     * The most significant bit goes to the first BDD variable.
+     */
+    private void assign(int start, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            assignment[start + i] = (byte)((value >> (size - 1 - i)) & 1);
+        }
+    }
+
+    /*
+     * Adding literals from the lowest level up makes every conjunction
+     * a single new node.
+     */
+    private BDD buildCube() {
+        BDD cube = factory.one();
+        for (int level = levelToVariable.length - 1; level >= 0; level--) {
+            int variable = levelToVariable[level];
+            if (assignment[variable] == FREE) {
+                continue;
+            }
+            BDD literal = assignment[variable] == 1 ? literals[variable]
+                    : negatedLiterals[variable];
+            cube = literal.id().andWith(cube);
+            assignment[variable] = FREE;
+        }
+        return cube;
+    }
+
+    private static class CubeKey {
+
+        private final long[] words;
+        private final int freeVariable;
+        private final int hash;
+
+        public CubeKey(long[] words, int freeVariable) {
+            this.words = words.clone();
+            this.freeVariable = freeVariable;
+            hash = 31 * Arrays.hashCode(words) + freeVariable;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CubeKey)) {
+                return false;
+            }
+            CubeKey another = (CubeKey)obj;
+            return freeVariable == another.freeVariable
+                    && Arrays.equals(words, another.words);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.system.kripkestructure;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class StateStore {
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int EMPTY = -1;
+    
+    private final int stateLength;
+    private final long[] packed;
+    private long[] states;
+    private int[] table;
+    private int size;
+    
+    /**
+     *
+     * @param variablesNumber Number of program variables in stored states.
+     */
+    public StateStore(int variablesNumber) {
+        stateLength = new StateVector(variablesNumber).getPackedLength();
+        packed = new long[stateLength];
+        states = new long[INITIAL_CAPACITY * stateLength];
+        table = createTable(INITIAL_CAPACITY * 2);
+    }
+    
+    /**
+     *
+     * @return Number of stored states.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * States are numbered in the order they have been added, so the states 
+     * which haven't been expanded yet always have the greatest numbers.
+     *
+     * @param state A state to add.
+     * @return Number of the state if it hasn't been stored before; -1 otherwise.
+     */
+    public int add(StateVector state) {
+        state.pack(packed, 0);
+        int mask = table.length - 1;
+        int slot = hash(packed, 0) & mask;
+        while (table[slot] != EMPTY) {
+            if (isEqual(table[slot])) {
+                return EMPTY;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * stateLength > states.length) {
+            long[] newStates = new long[states.length * 2];
+            System.arraycopy(states, 0, newStates, 0, size * stateLength);
+            states = newStates;
+        }
+        System.arraycopy(packed, 0, states, size * stateLength, stateLength);
+        table[slot] = size;
+        size++;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+    
+    /**
+     *
+     * @param index Number of a stored state.
+     * @param state StateVector to unpack the stored state into.
+     */
+    public void get(int index, StateVector state) {
+        state.unpack(states, index * stateLength);
+    }
+    
+    private boolean isEqual(int index) {
+        int offset = index * stateLength;
+        for (int i = 0; i < stateLength; i++) {
+            if (states[offset + i] != packed[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private int hash(long[] words, int offset) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (int i = offset; i < offset + stateLength; i++) {
+            hash ^= words[i];
+            hash *= 0xBF58476D1CE4E5B9L;
+            hash ^= hash >>> 31;
+        }
+        return (int)(hash ^ (hash >>> 32));
+    }
+    
+    private void rehash() {
+        table = createTable(table.length * 2);
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(states, i * stateLength) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i;
+        }
+    }
+    
+    private static int[] createTable(int length) {
+        int[] newTable = new int[length];
+        for (int i = 0; i < length; i++) {
+            newTable[i] = EMPTY;
+        }
+        return newTable;
+    }
+}
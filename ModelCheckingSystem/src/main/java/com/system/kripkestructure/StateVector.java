@@ -0,0 +1,137 @@
+package com.system.kripkestructure;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class StateVector {
+    
+    private static final int WORD_SIZE = 64;
+    private static final int VALUE_SIZE = 16;
+    private static final int VALUES_PER_WORD = WORD_SIZE / VALUE_SIZE;
+    private static final long VALUE_MASK = 0xFFFFL;
+    
+    private int pc;
+    private final short[] values;
+    private final long[] undefinedMask;
+    private final long[] inputMask;
+    
+    /**
+     *
+     * @param size Number of program variables; all of them are undefined 
+     * in a new StateVector.
+     */
+    public StateVector(int size) {
+        values = new short[size];
+        undefinedMask = new long[(size + WORD_SIZE - 1) / WORD_SIZE];
+        inputMask = new long[undefinedMask.length];
+        for (int i = 0; i < size; i++) {
+            undefinedMask[i / WORD_SIZE] |= 1L << i;
+        }
+    }
+    
+    public int size() {
+        return values.length;
+    }
+    
+    public int getPC() {
+        return pc;
+    }
+    
+    public void setPC(int pc) {
+        this.pc = pc;
+    }
+    
+    public short getValue(int variable) {
+        return values[variable];
+    }
+    
+    public void setValue(int variable, short value) {
+        values[variable] = value;
+        undefinedMask[variable / WORD_SIZE] &= ~(1L << variable);
+        inputMask[variable / WORD_SIZE] &= ~(1L << variable);
+    }
+    
+    /**
+     *
+     * @param variable Index of a variable that gets a value by <i>read</i>, 
+     * so it can hold any value of its type.
+     */
+    public void setInput(int variable) {
+        values[variable] = 0;
+        undefinedMask[variable / WORD_SIZE] &= ~(1L << variable);
+        inputMask[variable / WORD_SIZE] |= 1L << variable;
+    }
+    
+    public boolean isUndefined(int variable) {
+        return (undefinedMask[variable / WORD_SIZE] & (1L << variable)) != 0;
+    }
+    
+    public boolean isInput(int variable) {
+        return (inputMask[variable / WORD_SIZE] & (1L << variable)) != 0;
+    }
+    
+    /**
+     *
+     * @param variable Index of a variable.
+     * @return True if the variable has a concrete value in this state.
+     */
+    public boolean isDefined(int variable) {
+        return ((undefinedMask[variable / WORD_SIZE] | inputMask[variable / WORD_SIZE]) 
+                & (1L << variable)) == 0;
+    }
+    
+    public void copyFrom(StateVector another) {
+        pc = another.pc;
+        System.arraycopy(another.values, 0, values, 0, values.length);
+        System.arraycopy(another.undefinedMask, 0, undefinedMask, 0, undefinedMask.length);
+        System.arraycopy(another.inputMask, 0, inputMask, 0, inputMask.length);
+    }
+    
+    /**
+     *
+     * @return Number of words this StateVector takes when it is packed.
+     */
+    public int getPackedLength() {
+        return 1 + (values.length + VALUES_PER_WORD - 1) / VALUES_PER_WORD 
+                + 2 * undefinedMask.length;
+    }
+    
+    /**
+     *
+     * @param words Array to pack this StateVector into.
+     * @param offset Position of the first word in words.
+     */
+    public void pack(long[] words, int offset) {
+        int length = getPackedLength();
+        Arrays.fill(words, offset, offset + length, 0L);
+        words[offset++] = pc;
+        for (int i = 0; i < values.length; i++) {
+            words[offset + i / VALUES_PER_WORD] |= (values[i] & VALUE_MASK) 
+                    << (VALUE_SIZE * (i % VALUES_PER_WORD));
+        }
+        offset += (values.length + VALUES_PER_WORD - 1) / VALUES_PER_WORD;
+        System.arraycopy(undefinedMask, 0, words, offset, undefinedMask.length);
+        offset += undefinedMask.length;
+        System.arraycopy(inputMask, 0, words, offset, inputMask.length);
+    }
+    
+    /**
+     *
+     * @param words Array holding a packed StateVector of the same size.
+     * @param offset Position of the first word in words.
+     */
+    public void unpack(long[] words, int offset) {
+        pc = (int)words[offset++];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (short)(words[offset + i / VALUES_PER_WORD] 
+                    >>> (VALUE_SIZE * (i % VALUES_PER_WORD)));
+        }
+        offset += (values.length + VALUES_PER_WORD - 1) / VALUES_PER_WORD;
+        System.arraycopy(words, offset, undefinedMask, 0, undefinedMask.length);
+        offset += undefinedMask.length;
+        System.arraycopy(words, offset, inputMask, 0, inputMask.length);
+    }
+}
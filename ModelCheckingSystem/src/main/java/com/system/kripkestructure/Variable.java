@@ -24,6 +24,19 @@ public interface Variable {
      */
     int getSize();
 
+    /**
+     *
+     * @return The least value a variable of its type can hold; values are 
+     * encoded in getSize() bits as the offset from this value.
+     */
+    int getMinValue();
+
+    /**
+     *
+     * @return The greatest value a variable of its type can hold.
+     */
+    int getMaxValue();
+
     /**
      *
      * @return Hash code of this Variable.
@@ -0,0 +1,182 @@
+package com.system.kripkestructure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+class VariableOrderBuilder {
+
+    private static final int FORCE_ITERATIONS = 20;
+
+    private final int pcSize;
+    private final int[] variablesOffsets;
+    private final int[] variablesSizes;
+    private final int halfVariablesNumberBDD;
+    private final List<int[]> dependencies;
+
+    /**
+     *
+     * @param pcSize Number of bits of the program counter.
+     * @param variablesOffsets Index of the first BDD variable of each program
+     * variable.
+     * @param variablesSizes Number of bits of each program variable.
+     * @param halfVariablesNumberBDD Shift between current and next state
+     * BDD variables.
+     */
+    public VariableOrderBuilder(int pcSize, int[] variablesOffsets,
+            int[] variablesSizes, int halfVariablesNumberBDD) {
+        this.pcSize = pcSize;
+        this.variablesOffsets = variablesOffsets;
+        this.variablesSizes = variablesSizes;
+        this.halfVariablesNumberBDD = halfVariablesNumberBDD;
+        dependencies = new ArrayList<>();
+    }
+
+    /**
+     *
+     * @param variables Indexes of program variables used together in
+     * a condition, an assignment or an atomic predicate.
+     */
+    public void addDependency(Collection<Integer> variables) {
+        if (variables.size() < 2) {
+            return;
+        }
+        int[] dependency = new int[variables.size()];
+        int i = 0;
+        for (Integer variable : variables) {
+            dependency[i++] = variable;
+        }
+        dependencies.add(dependency);
+    }
+
+    /**
+     *
+     * @param ordering Kind of the order.
+     * @return BDD variables from the top level down, as expected by
+     * BDDFactory.setVarOrder.
+     */
+    public int[] buildOrder(VariableOrdering ordering) {
+        switch (ordering) {
+            case SEQUENTIAL:
+                int[] order = new int[halfVariablesNumberBDD * 2];
+                for (int i = 0; i < order.length; i++) {
+                    order[i] = i;
+                }
+                return order;
+
+            case FORCE:
+                return interleave(placeByForce());
+
+            default:
+                int[] placement = new int[variablesOffsets.length];
+                for (int i = 0; i < placement.length; i++) {
+                    placement[i] = i;
+                }
+                return interleave(placement);
+        }
+    }
+
+    /*
+     * The program counter goes on top, then program variables in the given
+     * order; every current state bit is directly followed by its next state
+     * copy.
+     */
+    private int[] interleave(int[] placement) {
+        int[] order = new int[halfVariablesNumberBDD * 2];
+        int level = 0;
+        for (int i = 0; i < pcSize; i++) {
+            order[level++] = i;
+            order[level++] = i + halfVariablesNumberBDD;
+        }
+        for (int variable : placement) {
+            int start = variablesOffsets[variable];
+            int end = start + variablesSizes[variable];
+            for (int i = start; i < end; i++) {
+                order[level++] = i;
+                order[level++] = i + halfVariablesNumberBDD;
+            }
+        }
+        return order;
+    }
+
+    /*
+     * Each round moves every variable to the mean of the centers of gravity
+     * of its dependencies; the placement with the least total span
+     * of dependencies is kept.
+     */
+    private int[] placeByForce() {
+        int variablesNumber = variablesOffsets.length;
+        Integer[] placement = new Integer[variablesNumber];
+        int[] positions = new int[variablesNumber];
+        for (int i = 0; i < variablesNumber; i++) {
+            placement[i] = i;
+            positions[i] = i;
+        }
+        int[] bestPlacement = toArray(placement);
+        long bestSpan = getSpan(positions);
+        final double[] forces = new double[variablesNumber];
+        int[] counts = new int[variablesNumber];
+        for (int iteration = 0; iteration < FORCE_ITERATIONS; iteration++) {
+            Arrays.fill(forces, 0);
+            Arrays.fill(counts, 0);
+            for (int[] dependency : dependencies) {
+                double center = 0;
+                for (int variable : dependency) {
+                    center += positions[variable];
+                }
+                center /= dependency.length;
+                for (int variable : dependency) {
+                    forces[variable] += center;
+                    counts[variable]++;
+                }
+            }
+            for (int i = 0; i < variablesNumber; i++) {
+                forces[i] = counts[i] == 0 ? positions[i] : forces[i] / counts[i];
+            }
+            Arrays.sort(placement, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer first, Integer second) {
+                    return Double.compare(forces[first], forces[second]);
+                }
+            });
+            for (int i = 0; i < variablesNumber; i++) {
+                positions[placement[i]] = i;
+            }
+            long span = getSpan(positions);
+            if (span >= bestSpan) {
+                break;
+            }
+            bestSpan = span;
+            bestPlacement = toArray(placement);
+        }
+        return bestPlacement;
+    }
+
+    private long getSpan(int[] positions) {
+        long span = 0;
+        for (int[] dependency : dependencies) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int variable : dependency) {
+                min = Math.min(min, positions[variable]);
+                max = Math.max(max, positions[variable]);
+            }
+            span += max - min;
+        }
+        return span;
+    }
+
+    private static int[] toArray(Integer[] placement) {
+        int[] result = new int[placement.length];
+        for (int i = 0; i < placement.length; i++) {
+            result[i] = placement[i];
+        }
+        return result;
+    }
+}
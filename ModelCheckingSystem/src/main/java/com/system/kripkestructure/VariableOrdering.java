@@ -0,0 +1,23 @@
+package com.system.kripkestructure;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public enum VariableOrdering {
+    /**
+     * All current state bits go first, then all next state bits.
+     */
+    SEQUENTIAL,
+    /**
+     * Each current state bit is followed by its next state copy; program
+     * variables keep the order of their declarations.
+     */
+    INTERLEAVED,
+    /**
+     * Like INTERLEAVED, but program variables used together in conditions,
+     * assignments and atomic predicates are placed close to each other
+     * (FORCE heuristic).
+     */
+    FORCE
+}
@@ -6,5 +6,6 @@ package com.system.kripkestructure;
  */
 public enum VariableType {
     INTEGER,
+    BOOLEAN,
     PC
 }
@@ -0,0 +1,84 @@
+package com.system.temporallogic;
+
+/**
+ * Node of a CTL formula DAG. Nodes are made by CTLFormulaTable only, 
+ * so equal subformulas are the same node and children can be compared 
+ * by identity.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+final class CTLFormula {
+    
+    private final Object element;
+    private final CTLFormula leftOperand;
+    private final CTLFormula rightOperand;
+    private final int hash;
+    
+    /**
+     *
+     * @param element Number of an atomic predicate or name of an operator.
+     * @param leftOperand The only operand of a unary operator; null for 
+     * an atomic predicate.
+     * @param rightOperand Right operand of a binary operator; null otherwise.
+     */
+    CTLFormula(Object element, CTLFormula leftOperand, CTLFormula rightOperand) {
+        this.element = element;
+        this.leftOperand = leftOperand;
+        this.rightOperand = rightOperand;
+        int elementHash = element.hashCode();
+        elementHash = 31 * elementHash + (leftOperand == null ? 0 : leftOperand.hash);
+        hash = 31 * elementHash + (rightOperand == null ? 0 : rightOperand.hash);
+    }
+    
+    /**
+     *
+     * @return Number of the atomic predicate or name of the operator.
+     */
+    public Object getElement() {
+        return element;
+    }
+    
+    /**
+     *
+     * @return The only operand of a unary operator, left operand of a binary 
+     * one; null for an atomic predicate.
+     */
+    public CTLFormula getLeftOperand() {
+        return leftOperand;
+    }
+    
+    /**
+     *
+     * @return Right operand of a binary operator; null otherwise.
+     */
+    public CTLFormula getRightOperand() {
+        return rightOperand;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof CTLFormula)) {
+            return false;
+        }
+        CTLFormula another = (CTLFormula)obj;
+        return hash == another.hash && element.equals(another.element)
+                && leftOperand == another.leftOperand
+                && rightOperand == another.rightOperand;
+    }
+
+    @Override
+    public String toString() {
+        if (leftOperand == null) {
+            return element.toString();
+        }
+        if (rightOperand == null) {
+            return element + " (" + leftOperand + ")";
+        }
+        return "(" + leftOperand + ") " + element + " (" + rightOperand + ")";
+    }
+}
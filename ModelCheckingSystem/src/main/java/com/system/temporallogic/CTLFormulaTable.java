@@ -0,0 +1,80 @@
+package com.system.temporallogic;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+
+/**
+ * Keeps every distinct subformula once, together with the BDD it has been 
+ * translated to. Sharing a table between CTLTranslators checking the same 
+ * Kripke structure with the same atomic predicates lets them reuse results 
+ * of each other.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class CTLFormulaTable {
+    
+    private final Map<CTLFormula, CTLFormula> formulas;
+    private final Map<CTLFormula, BDD> results;
+    
+    public CTLFormulaTable() {
+        formulas = new HashMap<>();
+        results = new HashMap<>();
+    }
+    
+    /**
+     *
+     * @return Number of distinct subformulas in the table.
+     */
+    public int size() {
+        return formulas.size();
+    }
+    
+    /**
+     *
+     * @return Number of subformulas which have been translated into BDD.
+     */
+    public int getResultsNumber() {
+        return results.size();
+    }
+    
+    /**
+     * Frees and forgets translated BDDs (for example, when the Kripke structure 
+     * has changed); subformulas are kept.
+     */
+    public void clearResults() {
+        for (BDD result : results.values()) {
+            result.free();
+        }
+        results.clear();
+    }
+    
+    CTLFormula makeAtomicPredicate(int number) {
+        return make(new CTLFormula(number, null, null));
+    }
+    
+    CTLFormula make(String operator, CTLFormula operand) {
+        return make(new CTLFormula(operator, operand, null));
+    }
+    
+    CTLFormula make(String operator, CTLFormula leftOperand, CTLFormula rightOperand) {
+        return make(new CTLFormula(operator, leftOperand, rightOperand));
+    }
+    
+    BDD getResult(CTLFormula formula) {
+        return results.get(formula);
+    }
+    
+    void putResult(CTLFormula formula, BDD result) {
+        results.put(formula, result);
+    }
+    
+    private CTLFormula make(CTLFormula formula) {
+        CTLFormula existing = formulas.get(formula);
+        if (existing != null) {
+            return existing;
+        }
+        formulas.put(formula, formula);
+        return formula;
+    }
+}
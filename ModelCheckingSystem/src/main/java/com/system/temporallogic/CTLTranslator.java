@@ -2,12 +2,9 @@ package com.system.temporallogic;
 
 import com.system.BDDSingleFactory;
 import com.system.util.SingleLogger;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.Stack;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
@@ -36,12 +33,16 @@ public class CTLTranslator implements TemporalLogicTranslator {
     private int highBorder;
     
     private final String formula;
-    private BDD statesTransitionsBDD;
+    private List<BDD> statesTransitionPartitions;
+    private TransitionRelation transitionRelation;
+    private boolean isTransitionRelationShared;
     private List<BDD> atomicPredicatesBDD;
-    private BDD result;
-    private Stack<BDD> keeper;
-    private Deque<Object> postfixFormula;
+    private CTLFormulaTable formulaTable;
+    private CTLFormula existentialFormula;
+    private BDD careSet;
     private BDDFactory factory;
+    private int[] currentStateVariables;
+    private int[] nextStateVariables;
     private static Logger logger;
     
     static {
@@ -65,11 +66,118 @@ public class CTLTranslator implements TemporalLogicTranslator {
      */
     @Override
     public BDD getBDDResult() throws IllegalArgumentException {
-        if (postfixFormula == null) {
-            postfixFormula = new CTLFormulaParser(formula).getPostfixFormula();
+        parseFormula();
+        return translateToBDD();
+    }
+
+    /**
+     *
+     * @return True if the formula is an invariant AG p (or an equivalent 
+     * one, like NOT EF NOT p), p having no temporal operators.
+     * @throws IllegalArgumentException if the CTL formula is bad-written one
+     */
+    public boolean isInvariant() throws IllegalArgumentException {
+        parseFormula();
+        return NOT.equals(existentialFormula.getElement()) && 
+                EF.equals(existentialFormula.getLeftOperand().getElement()) && 
+                isPropositional(existentialFormula.getLeftOperand().getLeftOperand());
+    }
+
+    /**
+     * Only the propositional part of the invariant is translated, 
+     * no fixpoint is computed.
+     *
+     * @return BDD representing states where p of the invariant AG p doesn't 
+     * hold.
+     * @throws IllegalArgumentException if the formula isn't an invariant 
+     * or is bad-written one
+     */
+    public BDD getInvariantViolationBDD() throws IllegalArgumentException {
+        if (!isInvariant() || atomicPredicatesBDD == null) {
+            throw new IllegalArgumentException();
         }
-        translateToBDD();
-        return result;
+        return translate(existentialFormula.getLeftOperand().getLeftOperand());
+    }
+
+    /**
+     * The path follows the outermost temporal operator: it's finite for EX, 
+     * EF and EU, and it's a lasso for EG; for a disjunction or a conjunction 
+     * the path witnesses one of its operands.
+     *
+     * @param from BDD representing states the path may start from, 
+     * like start states.
+     * @return Path from one of the given states where the formula holds, 
+     * witnessing it; null if there is no such state or the formula has 
+     * no existential temporal operator outside.
+     * @throws IllegalArgumentException if the CTL formula is bad-written one
+     */
+    public Trace getWitnessTrace(BDD from) throws IllegalArgumentException {
+        getBDDResult();
+        return buildTrace(existentialFormula, from, "witness");
+    }
+
+    /**
+     * The path witnesses the negation of the formula, so it's finite for 
+     * AX and AG, it's a lasso for AF, and it's either of them for AU.
+     *
+     * @param from BDD representing states the path may start from, 
+     * like start states.
+     * @return Path from one of the given states where the formula doesn't 
+     * hold, showing why; null if there is no such state or the negation 
+     * has no existential temporal operator outside.
+     * @throws IllegalArgumentException if the CTL formula is bad-written one
+     */
+    public Trace getCounterexampleTrace(BDD from) throws IllegalArgumentException {
+        getBDDResult();
+        if (!NOT.equals(existentialFormula.getElement())) {
+            return null;
+        }
+        return buildTrace(existentialFormula.getLeftOperand(), from, 
+                "counterexample");
+    }
+
+    /**
+     * A relation given here is used instead of the one built from transition 
+     * partitions and isn't freed after translation, so it can be shared by 
+     * translators of the same Kripke structure.
+     *
+     * @param transitionRelation Transition relation of the Kripke structure.
+     * @throws IllegalArgumentException if transitionRelation argument is null
+     */
+    public void setTransitionRelation(TransitionRelation transitionRelation) {
+        if (transitionRelation == null) {
+            throw new IllegalArgumentException();
+        }
+        this.transitionRelation = transitionRelation;
+        isTransitionRelationShared = true;
+    }
+
+    /**
+     * Fixpoints are computed inside the care set only, so they don't go 
+     * through states which can't occur; results are exact for the states 
+     * of the care set and empty outside it. The care set must contain all 
+     * successors of its states, as the set of reachable states does; 
+     * translators sharing a formula table must have the same care set.
+     *
+     * @param careSet BDD over current state variables; null means all states.
+     */
+    public void setCareSet(BDD careSet) {
+        this.careSet = careSet;
+    }
+
+    /**
+     *
+     * @param formulaTable Table of subformulas and their BDDs to share with 
+     * other translators of the same Kripke structure and atomic predicates; 
+     * each translator has its own table by default.
+     * @throws IllegalArgumentException if formulaTable argument is null
+     */
+    public void setFormulaTable(CTLFormulaTable formulaTable) {
+        if (formulaTable == null) {
+            throw new IllegalArgumentException();
+        }
+        this.formulaTable = formulaTable;
+        existentialFormula = null;
     }
 
     /**
@@ -83,7 +191,23 @@ public class CTLTranslator implements TemporalLogicTranslator {
         if (statesTransitionBDD == null) {
             throw new IllegalArgumentException();
         }
-        this.statesTransitionsBDD = statesTransitionBDD;
+        this.statesTransitionPartitions = Collections.singletonList(statesTransitionBDD);
+    }
+
+    /**
+     *
+     * @param statesTransitionPartitions List of BDDs, which disjunction 
+     * represents characteristic function of transitions between program states
+     * @throws IllegalArgumentException if statesTransitionPartitions argument 
+     * is null or contains null
+     */
+    @Override
+    public void setStatesTransitionPartitions(List<BDD> statesTransitionPartitions) {
+        if (statesTransitionPartitions == null || 
+                statesTransitionPartitions.contains(null)) {
+            throw new IllegalArgumentException();
+        }
+        this.statesTransitionPartitions = statesTransitionPartitions;
     }
 
     /**
@@ -103,222 +227,295 @@ public class CTLTranslator implements TemporalLogicTranslator {
         highBorder = length - 1;
     }
 
-    private void translateToBDD() throws IllegalArgumentException {
+    /**
+     *
+     * @param currentStateVariables BDD variables of the current state.
+     * @param nextStateVariables BDD variables of the next state; the next 
+     * state copy of each current state variable has the same index.
+     * @throws IllegalArgumentException if arguments are null or have 
+     * different lengths
+     */
+    @Override
+    public void setStateVariables(int[] currentStateVariables, int[] nextStateVariables) {
+        if (currentStateVariables == null || nextStateVariables == null || 
+                currentStateVariables.length != nextStateVariables.length) {
+            throw new IllegalArgumentException();
+        }
+        this.currentStateVariables = currentStateVariables;
+        this.nextStateVariables = nextStateVariables;
+    }
+
+    private void parseFormula() throws IllegalArgumentException {
+        if (formulaTable == null) {
+            formulaTable = new CTLFormulaTable();
+        }
+        if (existentialFormula == null) {
+            existentialFormula = toExistentialNormalForm(
+                    new CTLFormulaParser(formula).getPostfixFormula());
+        }
+    }
+
+    private BDD translateToBDD() throws IllegalArgumentException {
         if (atomicPredicatesBDD == null || atomicPredicatesBDD.isEmpty() ||
-                statesTransitionsBDD == null) {
+                (statesTransitionPartitions == null && !isTransitionRelationShared)) {
             throw new IllegalArgumentException();
         }
-        keeper = new Stack<>();
-        ElementState currentState;
-        BDD operand, leftOperand, rightOperand;
+        BDD result = formulaTable.getResult(existentialFormula);
+        if (result != null) {
+            logger.log(Level.INFO, formula + " has been already translated");
+            return result;
+        }
         logger.log(Level.INFO, "Starting translation of " + formula);
+        createTransitionRelation();
+        try {
+            result = translate(existentialFormula);
+        }
+        finally {
+            freeTransitionRelation();
+        }
+        logger.log(Level.INFO, "Formula is successfully translated");
+        return result;
+    }
+    
+    private void createTransitionRelation() {
         factory = BDDSingleFactory.getInstanse();
-        while(!postfixFormula.isEmpty()) {
-            Object element = postfixFormula.pollFirst();
-            if (element == null) {
-                logger.log(Level.INFO, "Reached the end of a postfix formula");
-                return;
+        if (isTransitionRelationShared) {
+            return;
+        }
+        setStateVariables();
+        transitionRelation = new TransitionRelation(factory, 
+                statesTransitionPartitions, currentStateVariables, 
+                nextStateVariables);
+        if (careSet != null) {
+            transitionRelation.simplify(careSet);
+        }
+    }
+    
+    private void freeTransitionRelation() {
+        if (isTransitionRelationShared) {
+            return;
+        }
+        transitionRelation.free();
+        transitionRelation = null;
+    }
+    
+    /*
+     * Path witnessing the subformula from one of the given states; its 
+     * outermost temporal operator is followed, operands of it are shown 
+     * by states only.
+     */
+    private Trace buildTrace(CTLFormula subformula, BDD from) {
+        BDD statesBDD = translate(subformula).and(from);
+        if (statesBDD.isZero()) {
+            statesBDD.free();
+            return null;
+        }
+        Object element = subformula.getElement();
+        CTLFormula leftOperand = subformula.getLeftOperand();
+        Trace trace = null;
+        TraceBuilder builder = new TraceBuilder(factory, transitionRelation, 
+                currentStateVariables, careSet);
+        if (EX.equals(element)) {
+            trace = builder.buildExTrace(statesBDD, translate(leftOperand));
+        }
+        else if (EF.equals(element)) {
+            BDD trueBDD = factory.one();
+            trace = builder.buildEuTrace(statesBDD, trueBDD, translate(leftOperand));
+            trueBDD.free();
+        }
+        else if (EU.equals(element)) {
+            trace = builder.buildEuTrace(statesBDD, translate(leftOperand), 
+                    translate(subformula.getRightOperand()));
+        }
+        else if (EG.equals(element)) {
+            trace = builder.buildEgTrace(statesBDD, translate(subformula));
+        }
+        else if (OR.equals(element) || AND.equals(element)) {
+            trace = buildTrace(leftOperand, statesBDD);
+            if (trace == null) {
+                trace = buildTrace(subformula.getRightOperand(), statesBDD);
             }
-            currentState = determineState(element);
-            switch(currentState) {
-                case OPERAND:
-                    logger.log(Level.INFO, "Translating operand number " + element);
-                    keeper.push(atomicPredicatesBDD.get((Integer) element));
-                    break;
-                    
+        }
+        builder.free();
+        statesBDD.free();
+        return trace;
+    }
+    
+    private Trace buildTrace(CTLFormula subformula, BDD from, String description) {
+        logger.log(Level.INFO, "Building " + description + " of " + formula);
+        createTransitionRelation();
+        try {
+            return buildTrace(subformula, from);
+        }
+        finally {
+            freeTransitionRelation();
+        }
+    }
+    
+    /*
+     * Every distinct subformula is translated once; its BDD is kept 
+     * in the formula table.
+     */
+    private BDD translate(CTLFormula subformula) {
+        BDD result = formulaTable.getResult(subformula);
+        if (result != null) {
+            return result;
+        }
+        Object element = subformula.getElement();
+        if (!isOperator(element)) {
+            logger.log(Level.INFO, "Translating operand number " + element);
+            result = atomicPredicatesBDD.get((Integer) element).id();
+            if (careSet != null) {
+                result.andWith(careSet.id());
+            }
+            formulaTable.putResult(subformula, result);
+            return result;
+        }
+        BDD leftOperand = translate(subformula.getLeftOperand());
+        BDD rightOperand = subformula.getRightOperand() == null ? null : 
+                translate(subformula.getRightOperand());
+        logger.log(Level.INFO, "Translating " + element + " operator");
+        switch (determineState(element)) {
+            case NOT:
+                result = translateNot(leftOperand);
+                break;
+                
+            case AND:
+                result = translateAnd(leftOperand, rightOperand);
+                break;
+                
+            case OR:
+                result = translateOr(leftOperand, rightOperand);
+                break;
+                
+            case XOR:
+                result = translateXor(leftOperand, rightOperand);
+                break;
+                
+            case EX:
+                result = translateEx(leftOperand);
+                break;
+                
+            case EF:
+                result = translateEf(leftOperand);
+                break;
+                
+            case EG:
+                result = translateEg(leftOperand);
+                break;
+                
+            case EU:
+                result = translateEu(leftOperand, rightOperand);
+                break;
+                
+            default:
+                // universal operators are rewritten by toExistentialNormalForm
+                logger.log(Level.ERROR, element + " is not an existential operator");
+                throw new IllegalArgumentException();
+        }
+        formulaTable.putResult(subformula, result);
+        return result;
+    }
+    
+    /*
+     * Rewrites the formula with EX, EF, EU and EG as the only temporal 
+     * operators: AX f = NOT EX NOT f, AF f = NOT EG NOT f, AG f = NOT EF NOT f, 
+     * A(f U g) = NOT (E(NOT g U (NOT f AND NOT g)) OR EG NOT g); double 
+     * negations are dropped. Subformulas are taken from the formula table, 
+     * so repeated ones become a single node.
+     */
+    private CTLFormula toExistentialNormalForm(Deque<Object> postfixFormula) 
+            throws IllegalArgumentException {
+        Stack<CTLFormula> subformulas = new Stack<>();
+        CTLFormula operand, leftOperand, rightOperand;
+        for (Object element : postfixFormula) {
+            ElementState currentState = determineState(element);
+            if (currentState == ElementState.OPERAND) {
+                subformulas.push(formulaTable.makeAtomicPredicate((Integer) element));
+                continue;
+            }
+            if (subformulas.isEmpty() || (isBinary(currentState) && 
+                    subformulas.size() < 2)) {
+                logger.log(Level.ERROR, "Wrong formula");
+                logger.log(Level.INFO, "Translation cancelled");
+                throw new IllegalArgumentException();
+            }
+            switch (currentState) {
                 case NOT:
-                    if (keeper.isEmpty()) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    operand = keeper.pop();
-                    if (operand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateNot(operand));
-                    break;
-                    
-                case AND:
-                    if (keeper.size() < 2) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    rightOperand = keeper.pop();
-                    leftOperand = keeper.pop();
-                    if (rightOperand == null || leftOperand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateAnd(leftOperand, rightOperand));
-                    break;
-                    
-                case OR:
-                    if (keeper.size() < 2) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    rightOperand = keeper.pop();
-                    leftOperand = keeper.pop();
-                    if (rightOperand == null || leftOperand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateOr(leftOperand, rightOperand));
-                    break;
-                    
-                case XOR:
-                    if (keeper.size() < 2) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    rightOperand = keeper.pop();
-                    leftOperand = keeper.pop();
-                    if (rightOperand == null || leftOperand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateXor(leftOperand, rightOperand));
+                    subformulas.push(negate(subformulas.pop()));
                     break;
                     
                 case AX:
-                    if (keeper.isEmpty()) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    operand = keeper.pop();
-                    if (operand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateAx(operand));
-                    break;
-                    
-                case EX:
-                    if (keeper.isEmpty()) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    operand = keeper.pop();
-                    if (operand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateEx(operand));
+                    operand = formulaTable.make(EX, negate(subformulas.pop()));
+                    subformulas.push(negate(operand));
                     break;
                     
                 case AF:
-                    if (keeper.isEmpty()) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    operand = keeper.pop();
-                    if (operand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateAf(operand));
-                    break;
-                    
-                case EF:
-                    if (keeper.isEmpty()) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    operand = keeper.pop();
-                    if (operand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateEf(operand));
+                    operand = formulaTable.make(EG, negate(subformulas.pop()));
+                    subformulas.push(negate(operand));
                     break;
                     
                 case AG:
-                    if (keeper.isEmpty()) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    operand = keeper.pop();
-                    if (operand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateAg(operand));
-                    break;
-                    
-                case EG:
-                    if (keeper.isEmpty()) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    operand = keeper.pop();
-                    if (operand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateEg(operand));
+                    operand = formulaTable.make(EF, negate(subformulas.pop()));
+                    subformulas.push(negate(operand));
                     break;
                     
                 case AU:
-                    if (keeper.size() < 2) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
-                    }
-                    rightOperand = keeper.pop();
-                    leftOperand = keeper.pop();
-                    if (rightOperand == null || leftOperand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
-                    }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateAu(leftOperand, rightOperand));
+                    rightOperand = negate(subformulas.pop());
+                    leftOperand = negate(subformulas.pop());
+                    CTLFormula until = formulaTable.make(EU, rightOperand, 
+                            formulaTable.make(AND, leftOperand, rightOperand));
+                    operand = formulaTable.make(OR, until, 
+                            formulaTable.make(EG, rightOperand));
+                    subformulas.push(negate(operand));
                     break;
                     
-                case EU:
-                    if (keeper.size() < 2) {
-                        logger.log(Level.ERROR, "Wrong formula");
-                        logger.log(Level.INFO, "Translation cancelled");
-                        throw new IllegalArgumentException();
+                default:
+                    if (isBinary(currentState)) {
+                        rightOperand = subformulas.pop();
+                        leftOperand = subformulas.pop();
+                        subformulas.push(formulaTable.make((String) element, 
+                                leftOperand, rightOperand));
                     }
-                    rightOperand = keeper.pop();
-                    leftOperand = keeper.pop();
-                    if (rightOperand == null || leftOperand == null) {
-                        logger.log(Level.ERROR, "Empty element");
-                        throw new IllegalArgumentException();
+                    else {
+                        subformulas.push(formulaTable.make((String) element, 
+                                subformulas.pop()));
                     }
-                    logger.log(Level.INFO, "Translating " + element + " operator");
-                    keeper.push(translateEu(leftOperand, rightOperand));
-                    break;
             }
         }
-        if (keeper.size() != 1) {
+        if (subformulas.size() != 1) {
             logger.log(Level.ERROR, "Wrong formula");
             logger.log(Level.INFO, "Translation cancelled");
             throw new IllegalArgumentException();
         }
-        logger.log(Level.INFO, "Formula is successfully translated");
-        result = keeper.pop();
+        return subformulas.pop();
+    }
+    
+    private boolean isPropositional(CTLFormula subformula) {
+        Object element = subformula.getElement();
+        if (!isOperator(element)) {
+            return true;
+        }
+        if (EX.equals(element) || EF.equals(element) || EG.equals(element) || 
+                EU.equals(element)) {
+            return false;
+        }
+        return isPropositional(subformula.getLeftOperand()) && 
+                (subformula.getRightOperand() == null || 
+                isPropositional(subformula.getRightOperand()));
+    }
+    
+    private boolean isBinary(ElementState state) {
+        return state == ElementState.AND || state == ElementState.OR || 
+                state == ElementState.XOR || state == ElementState.AU || 
+                state == ElementState.EU;
+    }
+    
+    private CTLFormula negate(CTLFormula subformula) {
+        if (NOT.equals(subformula.getElement())) {
+            return subformula.getLeftOperand();
+        }
+        return formulaTable.make(NOT, subformula);
     }
     
     private boolean isOperator(Object element) {
@@ -375,99 +572,23 @@ public class CTLTranslator implements TemporalLogicTranslator {
         throw new IllegalArgumentException();
     }
 
-    private BDD shiftBDD(BDD operand) {
-        if (operand.isOne() || operand.isZero()) {
-            return operand;
-        }
-        String stringBDD = operand.toString();
-        int numberOfVariables = factory.varNum();
-        int shift = numberOfVariables / 2;
-        BDD resultBDD = factory.one();
-        Map<Integer, Integer> valuableVariables = new HashMap<>();
-        String[] tempSplitedBDD = stringBDD.split("<");
-        boolean BDDCreated = false;
-        for (int i = 0; i < tempSplitedBDD.length; i++) {
-            if (tempSplitedBDD[i].isEmpty()) {
-                continue;
-            }
-            tempSplitedBDD[i] = tempSplitedBDD[i].trim().replaceAll(">", "");
-            String[] tempResult = tempSplitedBDD[i].split(", ");
-            for (int j = 0; j < tempResult.length; j++) {
-                if (tempResult[j].isEmpty()) {
-                    continue;
-                }
-                String[] variableAndValue = tempResult[j].trim().split(":");
-                boolean firstOccurance = true;
-                Integer variableNumber = 0, variableValue = 0;
-                for (int k = 0; k < variableAndValue.length; k++) {
-                    if (variableAndValue[k].isEmpty()) {
-                        continue;
-                    }
-                    if (firstOccurance) {
-                        firstOccurance = false;
-                        variableNumber = Integer.parseInt(variableAndValue[k]) + shift;
-                    }
-                    else {
-                        variableValue = Integer.parseInt(variableAndValue[k]);
-                    }
-                }
-                valuableVariables.put(variableNumber, variableValue);
-            }
-            if (!BDDCreated) {
-                BDDCreated = true;
-                Set<Integer> keySet = valuableVariables.keySet();
-                Iterator<Integer> keySetIterator = keySet.iterator();
-                if (keySetIterator.hasNext()) {
-                    int variable = keySetIterator.next();
-                    int value = valuableVariables.get(variable);
-                    if (value == 1) {
-                        resultBDD = factory.ithVar(variable);
-                    }
-                    else {
-                        resultBDD = factory.ithVar(variable).not();
-                    }
-                }
-                while (keySetIterator.hasNext()) {
-                    int variable = keySetIterator.next();
-                    int value = valuableVariables.get(variable);
-                    if (value == 1) {
-                        resultBDD = resultBDD.and(factory.ithVar(variable));
-                    }
-                    else {
-                        resultBDD = resultBDD.and(factory.ithVar(variable).not());
-                    }
-                }
-            }
-            else {
-                Set<Integer> keySet = valuableVariables.keySet();
-                Iterator<Integer> keySetIterator = keySet.iterator();
-                BDD tempBDD = factory.one();
-                if (keySetIterator.hasNext()) {
-                    int variable = keySetIterator.next();
-                    int value = valuableVariables.get(variable);
-                    if (value == 1) {
-                        tempBDD = factory.ithVar(variable);
-                    }
-                    else {
-                        tempBDD = factory.ithVar(variable).not();
-                    }
-                }
-                while (keySetIterator.hasNext()) {
-                    int variable = keySetIterator.next();
-                    int value = valuableVariables.get(variable);
-                    if (value == 1) {
-                        tempBDD = tempBDD.and(factory.ithVar(variable));
-                    }
-                    else {
-                        tempBDD = tempBDD.and(factory.ithVar(variable).not());
-                    }
-                }
-                resultBDD = resultBDD.or(tempBDD);
-            }
+    /*
+     * Without state variables given, the first half of BDD variables 
+     * belongs to the current state and the second one to the next state.
+     */
+    private void setStateVariables() {
+        if (currentStateVariables != null) {
+            return;
+        }
+        int shift = factory.varNum() / 2;
+        currentStateVariables = new int[shift];
+        nextStateVariables = new int[shift];
+        for (int i = 0; i < shift; i++) {
+            currentStateVariables[i] = i;
+            nextStateVariables[i] = i + shift;
         }
-        return resultBDD;
     }
-    
+
     private enum ElementState {
         AND,
         OR,
@@ -481,6 +602,9 @@ public class CTLTranslator implements TemporalLogicTranslator {
     }
     
     private BDD translateNot(BDD operand) {
+        if (careSet != null) {
+            return operand.not().andWith(careSet.id());
+        }
         return operand.not();
     }
     
@@ -496,84 +620,68 @@ public class CTLTranslator implements TemporalLogicTranslator {
         return leftOperand.xor(rightOperand);
     }
     
-    private BDD translateAx(BDD operand) {
-        return translateEx(operand.not()).not();
-    }
-    
     private BDD translateEx(BDD operand) {
-        if (operand.isZero()) {
-            return operand;
-        }
-        BDD shiftedOperand = shiftBDD(operand);
-        return backwardImage(statesTransitionsBDD.and(shiftedOperand));
-    }
-    
-    private BDD translateAf(BDD operand) {
-        BDD resultBDD = translateAx(operand).or(operand);
-        BDD previousBDD = operand;
-        while (!previousBDD.equals(resultBDD)) {
-            previousBDD = resultBDD;
-            resultBDD = translateAx(resultBDD).or(resultBDD);
-        }
-        return resultBDD;
+        return transitionRelation.preImage(operand, careSet);
     }
     
+    /*
+     * Least fixpoint Z = operand OR EX Z; only the pre-image of the states 
+     * which joined Z in the previous round is computed.
+     */
     private BDD translateEf(BDD operand) {
-        BDD resultBDD = translateEx(operand).or(operand);
-        BDD previousBDD = operand;
-        String resultString = resultBDD.toString(), previousString = previousBDD.toString();
-        while (!previousBDD.equals(resultBDD)) {
-            previousBDD = resultBDD;
-            resultBDD = translateEx(resultBDD).or(resultBDD);
-        }
-        return resultBDD;
-    }
-    
-    private BDD translateAg(BDD operand) {
-        BDD resultBDD = translateAx(operand).and(operand);
-        BDD previousBDD = operand;
-        while (!previousBDD.equals(resultBDD)) {
-            previousBDD = resultBDD;
-            resultBDD = translateAx(resultBDD).and(resultBDD);
+        BDD resultBDD = operand.id();
+        BDD frontierBDD = operand.id();
+        while (!frontierBDD.isZero()) {
+            BDD newBDD = translateEx(frontierBDD).andWith(resultBDD.not());
+            frontierBDD.free();
+            frontierBDD = newBDD;
+            resultBDD.orWith(frontierBDD.id());
         }
         return resultBDD;
     }
     
+    /*
+     * SCC-hull algorithm: the operand is pruned of states without a successor 
+     * or without a predecessor in what is left, which leaves the hull of its 
+     * nontrivial strongly connected components; EG holds where the hull can 
+     * be reached through the operand. Only neighbours of the states pruned 
+     * in the previous round are checked again.
+     */
     private BDD translateEg(BDD operand) {
-        BDD resultBDD = translateEx(operand).and(operand);
-        BDD previousBDD = operand;
-        while (!previousBDD.equals(resultBDD)) {
-            previousBDD = resultBDD;
-            resultBDD = translateEx(resultBDD).and(resultBDD);
-        }
-        return resultBDD;
-    }
-    
-    private BDD translateAu(BDD leftOperand, BDD rightOperand) {
-        BDD resultBDD = rightOperand.or(leftOperand.and(translateAx(rightOperand)));
-        BDD previousBDD = rightOperand;
-        while (!previousBDD.equals(resultBDD)) {
-            previousBDD = resultBDD;
-            resultBDD = rightOperand.or(leftOperand.and(translateAx(resultBDD)));
+        BDD hullBDD = translateEx(operand).andWith(operand.id())
+                .andWith(transitionRelation.postImage(operand));
+        BDD removedBDD = operand.and(hullBDD.not());
+        while (!removedBDD.isZero()) {
+            BDD candidatesBDD = translateEx(removedBDD)
+                    .orWith(transitionRelation.postImage(removedBDD))
+                    .andWith(hullBDD.id());
+            removedBDD.free();
+            BDD keptBDD = transitionRelation.preImage(hullBDD, candidatesBDD)
+                    .andWith(transitionRelation.postImage(hullBDD, candidatesBDD));
+            removedBDD = candidatesBDD.andWith(keptBDD.not());
+            keptBDD.free();
+            hullBDD.andWith(removedBDD.not());
         }
+        removedBDD.free();
+        BDD resultBDD = translateEu(operand, hullBDD);
+        hullBDD.free();
         return resultBDD;
     }
     
+    /*
+     * Least fixpoint Z = rightOperand OR (leftOperand AND EX Z), computed 
+     * from the frontier like EF.
+     */
     private BDD translateEu(BDD leftOperand, BDD rightOperand) {
-        BDD resultBDD = rightOperand.or(leftOperand.and(translateEx(rightOperand)));
-        BDD previousBDD = rightOperand;
-        while (!previousBDD.equals(resultBDD)) {
-            previousBDD = resultBDD;
-            resultBDD = rightOperand.or(leftOperand.and(translateEx(resultBDD)));
+        BDD resultBDD = rightOperand.id();
+        BDD frontierBDD = rightOperand.id();
+        while (!frontierBDD.isZero()) {
+            BDD newBDD = translateEx(frontierBDD).andWith(leftOperand.id())
+                    .andWith(resultBDD.not());
+            frontierBDD.free();
+            frontierBDD = newBDD;
+            resultBDD.orWith(frontierBDD.id());
         }
         return resultBDD;
     }
-    
-    private BDD backwardImage(BDD operand) {
-        int numberOfVariables = factory.varNum();
-        for (int i = numberOfVariables / 2; i < numberOfVariables; i++) {
-            operand = operand.exist(factory.ithVar(i));
-        }
-        return operand;
-    }
 }
@@ -0,0 +1,183 @@
+package com.system.temporallogic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * Checks an invariant AG p by breadth-first forward search from the start
+ * states, which stops at the first layer containing a state violating p.
+ * Layers of states found at each distance are kept, so a shortest path
+ * to a violating state is built from them.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class InvariantChecker {
+
+    private final BDDFactory factory;
+    private final TransitionRelation transitionRelation;
+    private final BDD startStates;
+    private final BDD badStates;
+    private final BDD currentCube;
+    private final List<BDD> layers;
+    private Boolean isHolding;
+
+    /**
+     *
+     * @param factory BDDFactory the BDDs belong to.
+     * @param transitionRelation Transition relation of the Kripke structure.
+     * @param startStates BDD over current state variables representing
+     * start states.
+     * @param badStates BDD over current state variables representing states
+     * where p doesn't hold.
+     * @param currentStateVariables BDD variables of the current state.
+     */
+    public InvariantChecker(BDDFactory factory, TransitionRelation transitionRelation,
+            BDD startStates, BDD badStates, int[] currentStateVariables) {
+        if (factory == null || transitionRelation == null || startStates == null
+                || badStates == null || currentStateVariables == null) {
+            throw new IllegalArgumentException();
+        }
+        this.factory = factory;
+        this.transitionRelation = transitionRelation;
+        this.startStates = startStates;
+        this.badStates = badStates;
+        currentCube = factory.makeSet(currentStateVariables);
+        layers = new ArrayList<>();
+    }
+
+    /**
+     *
+     * @return True if no state violating p is reachable from the start states.
+     */
+    public boolean check() {
+        if (isHolding != null) {
+            return isHolding;
+        }
+        BDD reachedBDD = startStates.id();
+        BDD frontierBDD = startStates.id();
+        isHolding = true;
+        while (!frontierBDD.isZero()) {
+            layers.add(frontierBDD);
+            BDD violatingBDD = frontierBDD.and(badStates);
+            isHolding = violatingBDD.isZero();
+            violatingBDD.free();
+            if (!isHolding) {
+                break;
+            }
+            frontierBDD = transitionRelation.postImage(frontierBDD)
+                    .andWith(reachedBDD.not());
+            reachedBDD.orWith(frontierBDD.id());
+        }
+        if (frontierBDD.isZero()) {
+            frontierBDD.free();
+        }
+        reachedBDD.free();
+        return isHolding;
+    }
+
+    /**
+     *
+     * @return Number of layers explored; if the invariant doesn't hold, it's
+     * the length of a shortest counterexample.
+     */
+    public int getLayersNumber() {
+        check();
+        return layers.size();
+    }
+
+    /**
+     *
+     * @return BDD over current state variables representing start states
+     * from which a violating state is reached in the fewest steps; zero if
+     * the invariant holds.
+     */
+    public BDD getViolatingStartStates() {
+        if (check()) {
+            return factory.zero();
+        }
+        BDD statesBDD = getFirstViolatingStates();
+        for (int i = layers.size() - 2; i >= 0; i--) {
+            BDD previousBDD = transitionRelation.preImage(statesBDD, layers.get(i));
+            statesBDD.free();
+            statesBDD = previousBDD;
+        }
+        return statesBDD;
+    }
+
+    /**
+     *
+     * @return BDD over current state variables representing states violating
+     * p reached in the fewest steps; zero if the invariant holds.
+     */
+    public BDD getFirstViolatingStates() {
+        if (check()) {
+            return factory.zero();
+        }
+        return layers.get(layers.size() - 1).and(badStates);
+    }
+
+    /**
+     * Unlike the search, this is a backward fixpoint: predecessors are added 
+     * from the violating states until nothing new appears, so it runs 
+     * only if the invariant doesn't hold.
+     *
+     * @return BDD over current state variables representing all states 
+     * from which a state violating p is reachable (EF NOT p), whatever 
+     * the length of the path; zero if the invariant holds.
+     */
+    public BDD getViolatingStates() {
+        if (check()) {
+            return factory.zero();
+        }
+        BDD reachingBDD = badStates.id();
+        BDD frontierBDD = badStates.id();
+        while (!frontierBDD.isZero()) {
+            BDD newBDD = transitionRelation.preImage(frontierBDD)
+                    .andWith(reachingBDD.not());
+            frontierBDD.free();
+            frontierBDD = newBDD;
+            reachingBDD.orWith(frontierBDD.id());
+        }
+        frontierBDD.free();
+        return reachingBDD;
+    }
+
+    /**
+     *
+     * @return Shortest path from a start state to a state violating p, one
+     * BDD of a single state for each step; empty list if the invariant holds.
+     */
+    public List<BDD> getShortestCounterexample() {
+        if (check()) {
+            return Collections.emptyList();
+        }
+        int length = layers.size();
+        BDD[] path = new BDD[length];
+        BDD candidatesBDD = layers.get(length - 1).and(badStates);
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = candidatesBDD.satOne(currentCube, false);
+            candidatesBDD.free();
+            if (i > 0) {
+                // the state has a predecessor exactly one layer closer
+                candidatesBDD = transitionRelation.preImage(path[i], layers.get(i - 1));
+            }
+        }
+        List<BDD> counterexample = new ArrayList<>();
+        Collections.addAll(counterexample, path);
+        return counterexample;
+    }
+
+    /**
+     * Frees all BDDs held by the checker.
+     */
+    public void free() {
+        for (BDD layer : layers) {
+            layer.free();
+        }
+        layers.clear();
+        currentCube.free();
+    }
+}
@@ -23,6 +23,14 @@ public interface TemporalLogicTranslator {
      */
     void setStatesTransitions(BDD statesTransitionBDD);
 
+    /**
+     *
+     * @param statesTransitionPartitions List of BDD, which disjunction 
+     * represents the characteristic function of transitions between states 
+     * of Kripke structure.
+     */
+    void setStatesTransitionPartitions(List<BDD> statesTransitionPartitions);
+
     /**
      *
      * @param atomicPredicatesBDD List of BDD representing the characteristic 
@@ -31,4 +39,12 @@ public interface TemporalLogicTranslator {
      */
     void setAtomicPredicates(List<BDD> atomicPredicatesBDD);
     
+    /**
+     *
+     * @param currentStateVariables BDD variables of the current state.
+     * @param nextStateVariables BDD variables of the next state; the next 
+     * state copy of each current state variable has the same index.
+     */
+    void setStateVariables(int[] currentStateVariables, int[] nextStateVariables);
+    
 }
@@ -0,0 +1,65 @@
+package com.system.temporallogic;
+
+import java.util.Collections;
+import java.util.List;
+import net.sf.javabdd.BDD;
+
+/**
+ * Path of the Kripke structure, one BDD of a single state for each step;
+ * a lasso path goes back from its last state to one of the earlier states.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class Trace {
+
+    private final List<BDD> states;
+    private final int loopIndex;
+
+    /**
+     *
+     * @param states States of the path, the first one is where it starts.
+     * @param loopIndex Index of the state the last state goes back to;
+     * -1 if the path is finite.
+     */
+    public Trace(List<BDD> states, int loopIndex) {
+        if (states == null || loopIndex < -1 || loopIndex >= states.size()) {
+            throw new IllegalArgumentException();
+        }
+        this.states = states;
+        this.loopIndex = loopIndex;
+    }
+
+    /**
+     *
+     * @return States of the path, the first one is where it starts.
+     */
+    public List<BDD> getStates() {
+        return Collections.unmodifiableList(states);
+    }
+
+    /**
+     *
+     * @return Index of the state the last state goes back to; -1 if the path
+     * is finite.
+     */
+    public int getLoopIndex() {
+        return loopIndex;
+    }
+
+    /**
+     *
+     * @return True if the path ends with a cycle.
+     */
+    public boolean isLasso() {
+        return loopIndex != -1;
+    }
+
+    /**
+     * Frees BDDs of the states.
+     */
+    public void free() {
+        for (BDD state : states) {
+            state.free();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.system.temporallogic;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * Builds paths witnessing existential CTL operators. The least fixpoint
+ * is computed again layer by layer, until a layer meets the states the path
+ * should start from, so the path is a shortest one; then it goes forward
+ * through the layers, one state each.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class TraceBuilder {
+
+    private final TransitionRelation transitionRelation;
+    private final BDD careSet;
+    private final BDD currentCube;
+
+    /**
+     *
+     * @param factory BDDFactory the BDDs belong to.
+     * @param transitionRelation Transition relation of the Kripke structure.
+     * @param currentStateVariables BDD variables of the current state.
+     * @param careSet Care set the formulas have been translated with; null
+     * means all states.
+     */
+    public TraceBuilder(BDDFactory factory, TransitionRelation transitionRelation,
+            int[] currentStateVariables, BDD careSet) {
+        if (factory == null || transitionRelation == null
+                || currentStateVariables == null) {
+            throw new IllegalArgumentException();
+        }
+        this.transitionRelation = transitionRelation;
+        this.careSet = careSet;
+        currentCube = factory.makeSet(currentStateVariables);
+    }
+
+    /**
+     *
+     * @param from States the path may start from.
+     * @param operand States where the operand of EX holds.
+     * @return Path of two states, the first one from the given states;
+     * null if there is no such path.
+     */
+    public Trace buildExTrace(BDD from, BDD operand) {
+        BDD startsBDD = transitionRelation.preImage(operand, careSet).andWith(from.id());
+        BDD firstState = pickState(startsBDD);
+        startsBDD.free();
+        if (firstState.isZero()) {
+            return null;
+        }
+        BDD successorsBDD = transitionRelation.postImage(firstState).andWith(operand.id());
+        List<BDD> states = new ArrayList<>();
+        states.add(firstState);
+        states.add(pickState(successorsBDD));
+        successorsBDD.free();
+        return new Trace(states, -1);
+    }
+
+    /**
+     * EF is EU with TRUE as the left operand.
+     *
+     * @param from States the path may start from.
+     * @param leftOperand States where the left operand of EU holds.
+     * @param rightOperand States where the right operand of EU holds.
+     * @return Shortest path from one of the given states to a state where
+     * the right operand holds, going through states where the left operand
+     * holds; null if there is no such path.
+     */
+    public Trace buildEuTrace(BDD from, BDD leftOperand, BDD rightOperand) {
+        List<BDD> layers = new ArrayList<>();
+        BDD reachedBDD = rightOperand.id();
+        BDD frontierBDD = rightOperand.id();
+        BDD meetingBDD = frontierBDD.and(from);
+        while (meetingBDD.isZero() && !frontierBDD.isZero()) {
+            layers.add(frontierBDD);
+            frontierBDD = transitionRelation.preImage(frontierBDD, careSet)
+                    .andWith(leftOperand.id()).andWith(reachedBDD.not());
+            reachedBDD.orWith(frontierBDD.id());
+            meetingBDD.free();
+            meetingBDD = frontierBDD.and(from);
+        }
+        frontierBDD.free();
+        reachedBDD.free();
+        List<BDD> states = null;
+        if (!meetingBDD.isZero()) {
+            states = new ArrayList<>();
+            BDD state = pickState(meetingBDD);
+            states.add(state);
+            // each state of a layer has a successor in the previous one
+            for (int i = layers.size() - 1; i >= 0; i--) {
+                BDD successorsBDD = transitionRelation.postImage(state)
+                        .andWith(layers.get(i).id());
+                state = pickState(successorsBDD);
+                successorsBDD.free();
+                states.add(state);
+            }
+        }
+        meetingBDD.free();
+        for (BDD layer : layers) {
+            layer.free();
+        }
+        return states == null ? null : new Trace(states, -1);
+    }
+
+    /**
+     * The path goes from state to state of EG until it comes to a state
+     * lying on a cycle of them, which is closed by a path built as for EU.
+     *
+     * @param from States the path may start from.
+     * @param egStates States where EG holds.
+     * @return Lasso path from one of the given states, all its states being
+     * ones where EG holds; null if there is no such path.
+     */
+    public Trace buildEgTrace(BDD from, BDD egStates) {
+        BDD startsBDD = from.and(egStates);
+        BDD state = pickState(startsBDD);
+        startsBDD.free();
+        if (state.isZero()) {
+            return null;
+        }
+        List<BDD> states = new ArrayList<>();
+        while (true) {
+            states.add(state);
+            BDD successorsBDD = transitionRelation.postImage(state).andWith(egStates.id());
+            Trace cycle = buildEuTrace(successorsBDD, egStates, state);
+            if (cycle != null) {
+                successorsBDD.free();
+                int loopIndex = states.size() - 1;
+                List<BDD> cycleStates = cycle.getStates();
+                // the last state of the cycle is the state it starts from
+                for (int i = 0; i < cycleStates.size() - 1; i++) {
+                    states.add(cycleStates.get(i));
+                }
+                cycleStates.get(cycleStates.size() - 1).free();
+                return new Trace(states, loopIndex);
+            }
+            state = pickState(successorsBDD);
+            successorsBDD.free();
+        }
+    }
+
+    /**
+     * Frees BDDs held by the builder.
+     */
+    public void free() {
+        currentCube.free();
+    }
+
+    private BDD pickState(BDD states) {
+        return states.satOne(currentCube, false);
+    }
+}
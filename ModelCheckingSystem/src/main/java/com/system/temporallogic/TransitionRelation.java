@@ -0,0 +1,300 @@
+package com.system.temporallogic;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import net.sf.javabdd.BDDPairing;
+
+/**
+ * Transition relation kept as a disjunction of partitions (one for each
+ * location of the program), so the monolithic BDD is never built. Small
+ * partitions are merged into clusters; images are computed cluster by
+ * cluster as relational products (conjunction and quantification in one
+ * pass), variables a cluster doesn't depend on being quantified before.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class TransitionRelation {
+
+    /**
+     * Partitions are merged into a cluster while it has no more nodes.
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 5000;
+
+    private final BDDFactory factory;
+    private final List<Cluster> clusters;
+    private final BDDPairing currentToNext;
+    private final BDDPairing nextToCurrent;
+    private final BDD currentCube;
+    private final BDD nextCube;
+
+    /**
+     *
+     * @param factory BDDFactory the partitions belong to.
+     * @param partitions BDDs of transitions, which disjunction is the whole
+     * relation.
+     * @param currentStateVariables BDD variables of the current state.
+     * @param nextStateVariables BDD variables of the next state; the next
+     * state copy of each current state variable has the same index.
+     */
+    public TransitionRelation(BDDFactory factory, List<BDD> partitions,
+            int[] currentStateVariables, int[] nextStateVariables) {
+        this(factory, partitions, currentStateVariables, nextStateVariables,
+                DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     *
+     * @param factory BDDFactory the partitions belong to.
+     * @param partitions BDDs of transitions, which disjunction is the whole
+     * relation.
+     * @param currentStateVariables BDD variables of the current state.
+     * @param nextStateVariables BDD variables of the next state; the next
+     * state copy of each current state variable has the same index.
+     * @param clusterSize Number of nodes up to which partitions are merged
+     * into one cluster; 0 keeps every partition apart.
+     */
+    public TransitionRelation(BDDFactory factory, List<BDD> partitions,
+            int[] currentStateVariables, int[] nextStateVariables, int clusterSize) {
+        if (factory == null || partitions == null || currentStateVariables == null
+                || nextStateVariables == null || clusterSize < 0
+                || currentStateVariables.length != nextStateVariables.length) {
+            throw new IllegalArgumentException();
+        }
+        this.factory = factory;
+        currentToNext = factory.makePair();
+        currentToNext.set(currentStateVariables, nextStateVariables);
+        nextToCurrent = factory.makePair();
+        nextToCurrent.set(nextStateVariables, currentStateVariables);
+        currentCube = factory.makeSet(currentStateVariables);
+        nextCube = factory.makeSet(nextStateVariables);
+        clusters = new ArrayList<>();
+        BDD clusterBDD = null;
+        for (BDD partition : partitions) {
+            if (partition.isZero()) {
+                continue;
+            }
+            if (clusterBDD == null) {
+                clusterBDD = partition.id();
+                continue;
+            }
+            BDD mergedBDD = clusterBDD.or(partition);
+            if (mergedBDD.nodeCount() > clusterSize) {
+                mergedBDD.free();
+                addCluster(clusterBDD, currentStateVariables, nextStateVariables);
+                clusterBDD = partition.id();
+            }
+            else {
+                clusterBDD.free();
+                clusterBDD = mergedBDD;
+            }
+        }
+        if (clusterBDD != null) {
+            addCluster(clusterBDD, currentStateVariables, nextStateVariables);
+        }
+    }
+
+    /**
+     *
+     * @return Number of clusters the relation is kept as.
+     */
+    public int getClustersNumber() {
+        return clusters.size();
+    }
+
+    /**
+     *
+     * @param states BDD over current state variables.
+     * @return BDD over current state variables representing states having
+     * a successor among the states.
+     */
+    public BDD preImage(BDD states) {
+        return preImage(states, null);
+    }
+
+    /**
+     * Only the states of the care set are examined, so the image costs
+     * as much as the care set is small.
+     *
+     * @param states BDD over current state variables.
+     * @param careSet BDD over current state variables; null means all states.
+     * @return BDD over current state variables representing states of
+     * the care set having a successor among the states.
+     */
+    public BDD preImage(BDD states, BDD careSet) {
+        BDD result = factory.zero();
+        if (states.isZero() || (careSet != null && careSet.isZero())) {
+            return result;
+        }
+        BDD nextStates = states.replace(currentToNext);
+        if (careSet != null) {
+            // the care set and the renamed states share no variables
+            nextStates.andWith(careSet.id());
+        }
+        for (Cluster cluster : clusters) {
+            if (cluster.earlyNextCube == null) {
+                result.orWith(cluster.transitions.relprod(nextStates, nextCube));
+                continue;
+            }
+            BDD clusterStates = nextStates.exist(cluster.earlyNextCube);
+            result.orWith(cluster.transitions.relprod(clusterStates, nextCube));
+            clusterStates.free();
+        }
+        nextStates.free();
+        return result;
+    }
+
+    /**
+     *
+     * @param states BDD over current state variables.
+     * @return BDD over current state variables representing successors
+     * of the states.
+     */
+    public BDD postImage(BDD states) {
+        return postImage(states, null);
+    }
+
+    /**
+     *
+     * @param states BDD over current state variables.
+     * @param careSet BDD over current state variables; null means all states.
+     * @return BDD over current state variables representing successors
+     * of the states which belong to the care set.
+     */
+    public BDD postImage(BDD states, BDD careSet) {
+        BDD result = factory.zero();
+        if (states.isZero() || (careSet != null && careSet.isZero())) {
+            return result;
+        }
+        BDD currentStates = states.id();
+        if (careSet != null) {
+            // the renamed care set and the states share no variables
+            currentStates.andWith(careSet.replace(currentToNext));
+        }
+        for (Cluster cluster : clusters) {
+            if (cluster.earlyCurrentCube == null) {
+                result.orWith(cluster.transitions.relprod(currentStates, currentCube));
+                continue;
+            }
+            BDD clusterStates = currentStates.exist(cluster.earlyCurrentCube);
+            result.orWith(cluster.transitions.relprod(clusterStates, currentCube));
+            clusterStates.free();
+        }
+        currentStates.free();
+        return result.replaceWith(nextToCurrent);
+    }
+
+    /**
+     * Forward reachability: successors are added from the frontier until
+     * nothing new appears.
+     *
+     * @param startStates BDD over current state variables.
+     * @return BDD over current state variables representing states reachable
+     * from the start states, the start states included.
+     */
+    public BDD reachableStates(BDD startStates) {
+        BDD reachedBDD = startStates.id();
+        BDD frontierBDD = startStates.id();
+        while (!frontierBDD.isZero()) {
+            BDD newBDD = postImage(frontierBDD).andWith(reachedBDD.not());
+            frontierBDD.free();
+            frontierBDD = newBDD;
+            reachedBDD.orWith(frontierBDD.id());
+        }
+        frontierBDD.free();
+        return reachedBDD;
+    }
+
+    /**
+     * Simplifies every cluster with the care set (generalized cofactor),
+     * transitions from states outside it becoming arbitrary. Afterwards
+     * pre-images are exact only when restricted to the care set, and
+     * post-images only for states of the care set.
+     *
+     * @param careSet BDD over current state variables.
+     */
+    public void simplify(BDD careSet) {
+        for (Cluster cluster : clusters) {
+            BDD simplifiedBDD = cluster.transitions.simplify(careSet);
+            if (simplifiedBDD.nodeCount() < cluster.transitions.nodeCount()) {
+                cluster.transitions.free();
+                cluster.transitions = simplifiedBDD;
+            }
+            else {
+                simplifiedBDD.free();
+            }
+        }
+    }
+
+    /**
+     * Frees all BDDs held by the relation.
+     */
+    public void free() {
+        for (Cluster cluster : clusters) {
+            cluster.free();
+        }
+        clusters.clear();
+        currentCube.free();
+        nextCube.free();
+    }
+
+    private void addCluster(BDD transitions, int[] currentStateVariables,
+            int[] nextStateVariables) {
+        boolean[] isInSupport = new boolean[factory.varNum()];
+        BDD support = transitions.support();
+        while (!support.isOne()) {
+            isInSupport[support.var()] = true;
+            BDD rest = support.high();
+            support.free();
+            support = rest;
+        }
+        support.free();
+        Cluster cluster = new Cluster(transitions);
+        cluster.earlyCurrentCube = getMissingVariables(isInSupport, currentStateVariables);
+        cluster.earlyNextCube = getMissingVariables(isInSupport, nextStateVariables);
+        clusters.add(cluster);
+    }
+
+    /*
+     * Variables the cluster doesn't depend on can be quantified out
+     * of the operand before the conjunction, which keeps it smaller.
+     */
+    private BDD getMissingVariables(boolean[] isInSupport, int[] variables) {
+        List<Integer> missingVariables = new ArrayList<>();
+        for (int variable : variables) {
+            if (!isInSupport[variable]) {
+                missingVariables.add(variable);
+            }
+        }
+        if (missingVariables.isEmpty()) {
+            return null;
+        }
+        int[] missing = new int[missingVariables.size()];
+        for (int i = 0; i < missing.length; i++) {
+            missing[i] = missingVariables.get(i);
+        }
+        return factory.makeSet(missing);
+    }
+
+    private static class Cluster {
+
+        private BDD transitions;
+        private BDD earlyCurrentCube;
+        private BDD earlyNextCube;
+
+        public Cluster(BDD transitions) {
+            this.transitions = transitions;
+        }
+
+        public void free() {
+            transitions.free();
+            if (earlyCurrentCube != null) {
+                earlyCurrentCube.free();
+            }
+            if (earlyNextCube != null) {
+                earlyNextCube.free();
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.system;
 
+import com.system.kripkestructure.VariableOrdering;
 import java.util.ArrayList;
 import java.util.List;
+import net.sf.javabdd.BDDFactory;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -31,4 +33,41 @@ public class ControllerTest {
         assertEquals(expResult, result);
     }
     
+    /**
+     * Test of startVerification method, of class Controller, <i>bool</i> and 
+     * ranged <i>int</i> variables.
+     */
+    @Test
+    public void testStartVerificationTypes() {
+        Controller instance = new Controller();
+        instance.setProgram("bool f; int[0..10] k; read(k); f = k > 5; if (f) { k = k - 6; }");
+        List<String> atomicPredicates = new ArrayList<>();
+        atomicPredicates.add("k <= 5");
+        instance.setAtomicPredicates(atomicPredicates);
+        instance.setCTLFormula("AF 0");
+        CTLVerificator verificator = instance.startVerification();
+        VerificationResult result = verificator.getVerificationResult();
+        VerificationResult expResult = VerificationResult.PROPERTY_HOLDS;
+        assertEquals(expResult, result);
+    }
+    
+    /**
+     * Test of startVerification method, of class Controller, variables 
+     * ordered by FORCE and reordered after translation.
+     */
+    @Test
+    public void testStartVerificationReordering() {
+        Controller instance = new Controller();
+        instance.setProgram("int4 a; bool f; int4 b; read(a); b = a; f = a == b; while (b > 0) { b = b - 1; }");
+        List<String> atomicPredicates = new ArrayList<>();
+        atomicPredicates.add("b == 0 && f");
+        atomicPredicates.add("a < 0");
+        instance.setAtomicPredicates(atomicPredicates);
+        instance.setCTLFormula("AF 0");
+        instance.setVariableOrdering(VariableOrdering.FORCE);
+        instance.setReorderAfterTranslation(BDDFactory.REORDER_WIN2);
+        CTLVerificator verificator = instance.startVerification();
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS, verificator.getVerificationResult());
+        assertFalse(verificator.getCounterexamples(1).isEmpty());
+    }
 }
@@ -0,0 +1,75 @@
+package com.system;
+
+import com.system.kripkestructure.BooleanVariable;
+import com.system.kripkestructure.IntegerVariable;
+import com.system.kripkestructure.ProgramCounterVariable;
+import com.system.kripkestructure.Variable;
+import com.system.temporallogic.BDDFixture;
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class IntervalRendererTest {
+
+    private BDDFactory factory;
+    private IntervalRenderer instance;
+
+    public IntervalRendererTest() {
+    }
+
+    /**
+     * Sets up two bits of pc, <i>int4</i> x and <i>bool</i> f, their bits
+     * taking BDD variables from 0 to 6.
+     */
+    @Before
+    public void setUp() {
+        factory = BDDFixture.createFactory(7);
+        List<Variable> variables = new ArrayList<>();
+        variables.add(new ProgramCounterVariable("pc", 2));
+        variables.add(new IntegerVariable("x", 4));
+        variables.add(new BooleanVariable("f"));
+        instance = new IntervalRenderer(factory, variables, null);
+    }
+
+    /**
+     * Test of render method, of class IntervalRenderer, values of a variable
+     * making one interval and two intervals.
+     */
+    @Test
+    public void testRenderIntervals() {
+        BDD pcBDD = factory.nithVar(0).andWith(factory.ithVar(1));
+        List<String> expResult = new ArrayList<>();
+        expResult.add("pc=1, x in [-8..-1], f in {false, true}");
+        assertEquals(expResult, instance.render(pcBDD.and(factory.nithVar(2)), 10));
+        expResult.clear();
+        expResult.add("pc=1, x in {[-8..-5], [0..3]}, f=true");
+        assertEquals(expResult, instance.render(pcBDD.and(factory.nithVar(3))
+                .andWith(factory.ithVar(6)), 10));
+    }
+
+    /**
+     * Test of render method, of class IntervalRenderer, one line for each
+     * group of states and the number of lines limited.
+     */
+    @Test
+    public void testRenderGroups() {
+        BDD statesBDD = factory.nithVar(0).andWith(factory.nithVar(1))
+                .andWith(factory.ithVar(6))
+                .orWith(factory.ithVar(0).andWith(factory.nithVar(1))
+                .andWith(factory.nithVar(6)));
+        List<String> expResult = new ArrayList<>();
+        expResult.add("pc=0, x in [-8..7], f=true");
+        expResult.add("pc=2, x in [-8..7], f=false");
+        assertEquals(expResult, instance.render(statesBDD, 10));
+        expResult.remove(1);
+        assertEquals(expResult, instance.render(statesBDD, 1));
+    }
+}
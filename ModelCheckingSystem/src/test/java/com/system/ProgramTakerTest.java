@@ -1,5 +1,7 @@
 package com.system;
 
+import com.system.kripkestructure.Variable;
+import com.system.kripkestructure.VariableType;
 import java.util.LinkedList;
 import java.util.List;
 import org.junit.Test;
@@ -39,4 +41,35 @@ public class ProgramTakerTest {
         assertEquals(expResult, result);
     }
     
+    /**
+     * Test of getProgramVariables method, of class ProgramTaker.
+     */
+    @Test
+    public void testGetProgramVariables() {
+        String program = "int a; int4 b; int[-2..10] c; bool d; read(c); d = c > 3;";
+        ProgramTaker programTaker = new ProgramTaker(program);
+        List<Variable> result = programTaker.getProgramVariables();
+        assertEquals(4, result.size());
+        assertEquals(16, result.get(0).getSize());
+        assertEquals(4, result.get(1).getSize());
+        assertEquals(-8, result.get(1).getMinValue());
+        assertEquals(7, result.get(1).getMaxValue());
+        assertEquals(4, result.get(2).getSize());
+        assertEquals(-2, result.get(2).getMinValue());
+        assertEquals(10, result.get(2).getMaxValue());
+        assertEquals("d", result.get(3).getName());
+        assertEquals(VariableType.BOOLEAN, result.get(3).getType());
+        assertEquals(1, result.get(3).getSize());
+        assertEquals(2, programTaker.splitProgram().size());
+    }
+    
+    /**
+     * Test of getProgramVariables method, of class ProgramTaker, bad declarations.
+     */
+    @Test
+    public void testGetProgramVariablesBad() {
+        assertNull(new ProgramTaker("int17 a; a = 1;").getProgramVariables());
+        assertNull(new ProgramTaker("int[5..1] a; a = 1;").getProgramVariables());
+        assertNull(new ProgramTaker("bool true; a = 1;").getProgramVariables());
+    }
 }
@@ -0,0 +1,79 @@
+package com.system;
+
+import com.system.kripkestructure.BooleanVariable;
+import com.system.kripkestructure.RangedIntegerVariable;
+import com.system.kripkestructure.Variable;
+import com.system.temporallogic.BDDFixture;
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class StateIteratorTest {
+
+    private static final int[] STATE_VARIABLES = {3, 1, 0};
+
+    private BDDFactory factory;
+    private List<Variable> variables;
+
+    public StateIteratorTest() {
+    }
+
+    /**
+     * Sets up a <i>bool</i> variable and an <i>int</i> ranged from 2 to 5,
+     * their bits taking BDD variables in another order.
+     */
+    @Before
+    public void setUp() {
+        factory = BDDFixture.createFactory(4);
+        variables = new ArrayList<>();
+        variables.add(new BooleanVariable("f"));
+        variables.add(new RangedIntegerVariable("k", 2, 5));
+    }
+
+    /**
+     * Test of next method, of class StateIterator, bits the BDD doesn't
+     * depend on taking all their values.
+     */
+    @Test
+    public void testNext() {
+        BDD statesBDD = factory.ithVar(3).andWith(factory.nithVar(0));
+        List<String> result = collect(statesBDD);
+        List<String> expResult = new ArrayList<>();
+        expResult.add("f=true, k=2");
+        expResult.add("f=true, k=4");
+        assertEquals(expResult, result);
+        statesBDD = factory.nithVar(3).andWith(factory.ithVar(1))
+                .orWith(factory.ithVar(3).andWith(factory.ithVar(1)).andWith(factory.ithVar(0)));
+        expResult.clear();
+        expResult.add("f=false, k=4");
+        expResult.add("f=false, k=5");
+        expResult.add("f=true, k=5");
+        assertEquals(expResult, collect(statesBDD));
+    }
+
+    /**
+     * Test of hasNext method, of class StateIterator, constant BDDs.
+     */
+    @Test
+    public void testHasNext() {
+        assertFalse(new StateIterator(factory.zero(), variables, STATE_VARIABLES).hasNext());
+        assertEquals(8, collect(factory.one()).size());
+    }
+
+    private List<String> collect(BDD statesBDD) {
+        List<String> states = new ArrayList<>();
+        StateIterator instance = new StateIterator(statesBDD, variables, STATE_VARIABLES);
+        while (instance.hasNext()) {
+            states.add(instance.next());
+        }
+        return states;
+    }
+}
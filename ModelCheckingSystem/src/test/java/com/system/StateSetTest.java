@@ -0,0 +1,106 @@
+package com.system;
+
+import com.system.kripkestructure.ProgramCounterVariable;
+import com.system.kripkestructure.RangedIntegerVariable;
+import com.system.kripkestructure.Variable;
+import com.system.temporallogic.BDDFixture;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class StateSetTest {
+
+    private BDDFactory factory;
+    private List<Variable> variables;
+    private BDD statesBDD;
+
+    public StateSetTest() {
+    }
+
+    /**
+     * Sets up two bits of pc and an <i>int</i> ranged from 0 to 2; the states
+     * are all ones at location 1 and k = 0 at location 2.
+     */
+    @Before
+    public void setUp() {
+        factory = BDDFixture.createFactory(4);
+        variables = new ArrayList<>();
+        variables.add(new ProgramCounterVariable("pc", 2));
+        variables.add(new RangedIntegerVariable("k", 0, 2));
+        statesBDD = factory.nithVar(0).andWith(factory.ithVar(1))
+                .orWith(factory.ithVar(0).andWith(factory.nithVar(1))
+                .andWith(factory.nithVar(2)).andWith(factory.nithVar(3)));
+    }
+
+    /**
+     * Test of count method, of class StateSet, encodings out of range left out.
+     */
+    @Test
+    public void testCount() {
+        assertEquals(BigInteger.valueOf(4), new StateSet(statesBDD, variables, null).count());
+        assertEquals(BigInteger.valueOf(12),
+                new StateSet(factory.one(), variables, null).count());
+        assertEquals(BigInteger.ZERO, new StateSet(factory.zero(), variables, null).count());
+    }
+
+    /**
+     * Test of countByPC method, of class StateSet.
+     */
+    @Test
+    public void testCountByPC() {
+        Map<Integer, BigInteger> result = new StateSet(statesBDD, variables, null).countByPC();
+        assertEquals(2, result.size());
+        assertEquals(BigInteger.valueOf(3), result.get(1));
+        assertEquals(BigInteger.ONE, result.get(2));
+    }
+
+    /**
+     * Test of sample method, of class StateSet, every state is taken.
+     */
+    @Test
+    public void testSample() {
+        StateSet instance = new StateSet(statesBDD, variables, null);
+        Random random = new Random(1);
+        Set<String> samples = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            String state = instance.sample(random);
+            assertTrue(instance.contains(state));
+            samples.add(state);
+        }
+        assertEquals(4, samples.size());
+        assertNull(new StateSet(factory.zero(), variables, null).sample(random));
+    }
+
+    /**
+     * Test of contains method, of class StateSet.
+     */
+    @Test
+    public void testContains() {
+        StateSet instance = new StateSet(statesBDD, variables, null);
+        assertTrue(instance.contains("pc=1, k=2"));
+        assertTrue(instance.contains("pc=2, k=0"));
+        assertFalse(instance.contains("pc=2, k=1"));
+        assertFalse(instance.contains("pc=0, k=0"));
+    }
+
+    /**
+     * Test of contains method, of class StateSet, a value out of range.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testContainsOutOfRange() {
+        new StateSet(statesBDD, variables, null).contains("pc=1, k=3");
+    }
+}
@@ -0,0 +1,248 @@
+package com.system;
+
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class VerificationSessionTest {
+
+    private VerificationSession instance;
+
+    public VerificationSessionTest() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new VerificationSession(
+                "int[0..10] k; read(k); while (k > 0) { k = k - 1; }");
+    }
+
+    @After
+    public void tearDown() {
+        instance.close();
+    }
+
+    /**
+     * Test of check method, of class VerificationSession, several formulas
+     * on one translated program.
+     */
+    @Test
+    public void testCheck() {
+        assertEquals(0, instance.addAtomicPredicate("k == 0"));
+        assertNull(instance.check("AF 0"));
+        assertTrue(instance.open());
+        assertTrue(instance.isOpen());
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                instance.check("AF 0").getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                instance.check("AG 0").getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                instance.check("AF 0").getVerificationResult());
+        assertNull(instance.check("AF 1"));
+    }
+
+    /**
+     * Test of check method, of class VerificationSession, formulas evaluated
+     * on reachable states only.
+     */
+    @Test
+    public void testCheckReachableStates() {
+        instance.addAtomicPredicate("k == 0");
+        instance.addAtomicPredicate("k > 10");
+        instance.setRestrictToReachableStates(true);
+        assertTrue(instance.open());
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                instance.check("AF 0").getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                instance.check("AG NOT 1").getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                instance.check("AG 0").getVerificationResult());
+    }
+
+    /**
+     * Test of check method, of class VerificationSession, an invariant
+     * checked by forward search.
+     */
+    @Test
+    public void testCheckInvariant() {
+        VerificationSession session = new VerificationSession(
+                "int[0..3] k; k = 3; while (k > 0) { k = k - 1; }");
+        session.addAtomicPredicate("k == 0");
+        session.addAtomicPredicate("k > 3");
+        assertTrue(session.open());
+        CTLVerificator verificator = session.check("AG NOT 1");
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                verificator.getVerificationResult());
+        assertTrue(verificator.getCounterexampleTrace().isEmpty());
+        verificator = session.check("AG NOT 0");
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                verificator.getVerificationResult());
+        List<String> trace = verificator.getCounterexampleTrace();
+        assertEquals(10, trace.size());
+        assertEquals("pc=1, k=3", trace.get(1));
+        assertEquals("pc=3, k=0", trace.get(9));
+        session.close();
+    }
+
+    /**
+     * Test of check method, of class VerificationSession, a lasso
+     * counterexample of AF and a finite witness of EF.
+     */
+    @Test
+    public void testCheckCounterexampleTrace() {
+        VerificationSession session = new VerificationSession(
+                "bool f; int[0..3] k; read(f); k = 1; while (f) { k = 3 - k; }");
+        session.addAtomicPredicate("k == 0");
+        session.addAtomicPredicate("k == 2");
+        assertTrue(session.open());
+        CTLVerificator verificator = session.check("AF 0");
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                verificator.getVerificationResult());
+        List<String> trace = verificator.getCounterexampleTrace();
+        assertEquals(4, trace.size());
+        assertEquals("pc=5, f=false, k=1", trace.get(3));
+        assertEquals(3, verificator.getCounterexampleLoopIndex());
+        verificator = session.check("EF 1");
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                verificator.getVerificationResult());
+        trace = verificator.getWitnessTrace();
+        assertEquals(5, trace.size());
+        assertEquals("pc=4, f=true, k=2", trace.get(4));
+        assertEquals(-1, verificator.getWitnessLoopIndex());
+        session.close();
+    }
+
+    /**
+     * Test of addAtomicPredicate method, of class VerificationSession,
+     * predicates added after the session is opened.
+     */
+    @Test
+    public void testAddAtomicPredicate() {
+        instance.addAtomicPredicate("k == 0");
+        assertTrue(instance.open());
+        assertEquals(1, instance.addAtomicPredicate("k > 10"));
+        assertEquals(2, instance.addAtomicPredicate("k >= 5"));
+        assertEquals(3, instance.getAtomicPredicatesNumber());
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                instance.check("EF 1").getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                instance.check("AG (2 OR 0 OR NOT 1)").getVerificationResult());
+        CTLVerificator verificator = instance.check("AG 2");
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                verificator.getVerificationResult());
+        List<String> counterexamples = verificator.getCounterexamples(-1);
+        assertEquals(counterexamples.size(),
+                verificator.getCounterexamplesNumber().intValue());
+        assertTrue(verificator.isCounterexample(counterexamples.get(0)));
+        assertEquals(verificator.getCounterexamplesNumber(),
+                verificator.getCounterexamplesNumberByPC().get(0));
+        assertEquals("pc=0, k in [0..10]",
+                verificator.getCounterexampleIntervals(-1).get(0));
+    }
+
+    /**
+     * Test of setSymbolicInputs method, of class VerificationSession: verdicts
+     * don't depend on whether statements on read values are encoded by
+     * arithmetic on bits or for each value.
+     */
+    @Test
+    public void testSymbolicInputs() {
+        String program = "int[-3..9] k; int m; bool b; read(k); m = k * 3 - 7;"
+                + " b = m / (k + 5) > 1; while (k > 0) { k = k - 2; m = m / 2; }";
+        String[] predicates = {"k == 0", "m > 5", "b", "m == -7", "k < 0"};
+        String[] formulas = {"AF 0", "EF 0", "AG NOT 1", "EF 2", "AG (2 OR NOT 2)",
+            "EF (3 AND 4)", "AF (0 OR 4)", "EG NOT 0"};
+        VerificationSession explicit = new VerificationSession(program);
+        VerificationSession symbolic = new VerificationSession(program);
+        explicit.setSymbolicInputs(false);
+        for (String predicate : predicates) {
+            explicit.addAtomicPredicate(predicate);
+            symbolic.addAtomicPredicate(predicate);
+        }
+        assertTrue(explicit.open());
+        assertTrue(symbolic.open());
+        for (String formula : formulas) {
+            assertEquals(formula, explicit.check(formula).getVerificationResult(),
+                    symbolic.check(formula).getVerificationResult());
+        }
+        explicit.close();
+        symbolic.close();
+    }
+
+    /**
+     * Test of addAtomicPredicate method, of class VerificationSession,
+     * predicates over several variables, translated when a formula takes them.
+     */
+    @Test
+    public void testAddAtomicPredicateSeveralVariables() {
+        VerificationSession session = new VerificationSession(
+                "bool f; int[0..10] k; read(k); f = k > 5; if (f) { k = k - 6; }");
+        session.addAtomicPredicate("k <= 5");
+        assertTrue(session.open());
+        assertEquals(1, session.addAtomicPredicate("f || k < 0"));
+        assertEquals(2, session.addAtomicPredicate("k + 1"));
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                session.check("AF 0").getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                session.check("AG 1").getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                session.check("EF 2").getVerificationResult());
+        session.close();
+    }
+
+    /**
+     * Test of check method, of class VerificationSession, counterexamples
+     * of an invariant being the same as of the formula written without AG.
+     */
+    @Test
+    public void testCheckInvariantCounterexamples() {
+        instance.addAtomicPredicate("k != 3");
+        assertTrue(instance.open());
+        CTLVerificator invariant = instance.check("AG 0");
+        CTLVerificator formula = instance.check("NOT EF NOT 0");
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                invariant.getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                formula.getVerificationResult());
+        assertEquals(formula.getCounterexamplesNumber(),
+                invariant.getCounterexamplesNumber());
+        assertEquals(formula.getCounterexamples(-1), invariant.getCounterexamples(-1));
+    }
+
+    /**
+     * Test of open method, of class VerificationSession, a reachable division
+     * by zero cancelling the translation.
+     */
+    @Test
+    public void testOpenDivisionByZero() {
+        VerificationSession session = new VerificationSession(
+                "int k; k = 0; k = 5 / k;");
+        session.addAtomicPredicate("k == 0");
+        assertFalse(session.open());
+        assertFalse(session.isOpen());
+    }
+
+    /**
+     * Test of open method, of class VerificationSession, two values of 16 bits
+     * given by read, which stay symbolic by default instead of being enumerated.
+     */
+    @Test
+    public void testOpenWideInputs() {
+        VerificationSession session = new VerificationSession("int a; int b; bool f;"
+                + " read(a); read(b); if (a > 100) { f = true; } else { f = b == 7; }");
+        session.addAtomicPredicate("f");
+        session.addAtomicPredicate("a == 60 && b == 7");
+        assertTrue(session.open());
+        assertEquals(VerificationResult.PROPERTY_NOT_HOLDS,
+                session.check("AF 0").getVerificationResult());
+        assertEquals(VerificationResult.PROPERTY_HOLDS,
+                session.check("AG (NOT 1 OR AF 0)").getVerificationResult());
+        session.close();
+    }
+}
@@ -0,0 +1,129 @@
+package com.system.kripkestructure;
+
+import com.system.temporallogic.BDDFixture;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class BitVectorTest {
+
+    private static final int WIDTH = 4;
+    private static final int[] LEFT = {0, 1, 2, 3};
+    private static final int[] RIGHT = {4, 5, 6, 7};
+
+    private BDDFactory factory;
+    private BitVector left;
+    private BitVector right;
+
+    public BitVectorTest() {
+    }
+
+    @Before
+    public void setUp() {
+        factory = BDDFixture.createFactory(LEFT.length + RIGHT.length);
+        left = BitVector.variables(factory, LEFT);
+        right = BitVector.variables(factory, RIGHT);
+    }
+
+    /**
+     * Test of add, subtract, multiply, divide and negate methods, of class
+     * BitVector, for all values of 4 bits: they wrap around as Java values do.
+     */
+    @Test
+    public void testArithmetic() {
+        BitVector sum = left.add(right);
+        BitVector difference = left.subtract(right);
+        BitVector product = left.multiply(right);
+        BitVector quotient = left.divide(right);
+        BitVector negation = left.negate();
+        for (int a = -8; a < 8; a++) {
+            for (int b = -8; b < 8; b++) {
+                assertEquals(wrap(a + b), valueOf(sum, a, b));
+                assertEquals(wrap(a - b), valueOf(difference, a, b));
+                assertEquals(wrap(a * b), valueOf(product, a, b));
+                assertEquals(b == 0 ? 0 : wrap(a / b), valueOf(quotient, a, b));
+                assertEquals(wrap(-a), valueOf(negation, a, b));
+            }
+        }
+        sum.free();
+        difference.free();
+        product.free();
+        quotient.free();
+        negation.free();
+    }
+
+    /**
+     * Test of comparison methods, of class BitVector, for all values of 4 bits.
+     */
+    @Test
+    public void testCompare() {
+        BDD equal = left.equalTo(right);
+        BDD less = left.lessThan(right);
+        BDD lessOrEqual = left.lessOrEqual(right);
+        BDD lessOrEqualUnsigned = left.lessOrEqualUnsigned(right);
+        for (int a = -8; a < 8; a++) {
+            for (int b = -8; b < 8; b++) {
+                assertEquals(a == b, holds(equal, a, b));
+                assertEquals(a < b, holds(less, a, b));
+                assertEquals(a <= b, holds(lessOrEqual, a, b));
+                assertEquals((a & 0xF) <= (b & 0xF), holds(lessOrEqualUnsigned, a, b));
+            }
+        }
+        equal.free();
+        less.free();
+        lessOrEqual.free();
+        lessOrEqualUnsigned.free();
+    }
+
+    /**
+     * Test of remainderUnsigned method, of class BitVector, by a constant.
+     */
+    @Test
+    public void testRemainderUnsigned() {
+        BitVector divisor = BitVector.constant(factory, WIDTH, 5);
+        BitVector remainder = left.remainderUnsigned(divisor);
+        for (int a = 0; a < 16; a++) {
+            assertEquals(a % 5, valueOf(remainder, a, 0) & 0xF);
+        }
+        divisor.free();
+        remainder.free();
+    }
+
+    private int wrap(int value) {
+        return (value << (Integer.SIZE - WIDTH)) >> (Integer.SIZE - WIDTH);
+    }
+
+    private BDD assignment(int a, int b) {
+        BDD result = factory.one();
+        for (int i = 0; i < WIDTH; i++) {
+            result.andWith(((a >> (WIDTH - 1 - i)) & 1) == 1 ? factory.ithVar(LEFT[i])
+                    : factory.nithVar(LEFT[i]));
+            result.andWith(((b >> (WIDTH - 1 - i)) & 1) == 1 ? factory.ithVar(RIGHT[i])
+                    : factory.nithVar(RIGHT[i]));
+        }
+        return result;
+    }
+
+    private boolean holds(BDD condition, int a, int b) {
+        BDD values = assignment(a, b);
+        BDD result = condition.restrict(values);
+        values.free();
+        boolean isOne = result.isOne();
+        result.free();
+        return isOne;
+    }
+
+    private int valueOf(BitVector vector, int a, int b) {
+        int value = 0;
+        for (int i = vector.getWidth() - 1; i >= 0; i--) {
+            value = (value << 1) | (holds(vector.getBit(i), a, b) ? 1 : 0);
+        }
+        return wrap(value);
+    }
+}
@@ -165,4 +165,125 @@ public class CalculatorTest {
         String result = instance.calculate(variablesValuesMap, infixFormula, postfixFormula);
         assertEquals(expResult, result);
     }
+    
+    /**
+     * Test of calculate method, of class Calculator, boolean variables.
+     */
+    @Test
+    public void booleanTestCalculate() {
+        List<Variable> variables = new ArrayList<>();
+        variables.add(new BooleanVariable("f"));
+        variables.add(new BooleanVariable("g"));
+        variables.add(new IntegerVariable("a"));
+        Map<Variable, String> variablesValuesMap = new HashMap<>();
+        variablesValuesMap.put(variables.get(0), "true");
+        variablesValuesMap.put(variables.get(1), "false");
+        variablesValuesMap.put(variables.get(2), "3");
+        String infixFormula = "(f != g) && (g == false) && (f || a > 5)";
+        Deque<String> postfixFormula = new ConditionParser(variables).parseCondition(infixFormula);
+        Calculator instance = new Calculator();
+        String result = instance.calculate(variablesValuesMap, infixFormula, postfixFormula, 
+                variables.get(1));
+        assertEquals("true", result);
+        infixFormula = "a + 1";
+        postfixFormula = new ConditionParser(variables).parseCondition(infixFormula);
+        result = instance.calculate(variablesValuesMap, infixFormula, postfixFormula, 
+                variables.get(0));
+        assertNull(result);
+    }
+    
+    /**
+     * Test of calculate method, of class Calculator, values wrap around 
+     * into the range of the variable.
+     */
+    @Test
+    public void wrapTestCalculate() {
+        List<Variable> variables = new ArrayList<>();
+        variables.add(new IntegerVariable("a", 4));
+        variables.add(new RangedIntegerVariable("b", 2, 6));
+        Map<Variable, String> variablesValuesMap = new HashMap<>();
+        variablesValuesMap.put(variables.get(0), "7");
+        variablesValuesMap.put(variables.get(1), "6");
+        Calculator instance = new Calculator();
+        String infixFormula = "a + 1";
+        Deque<String> postfixFormula = new ConditionParser(variables).parseCondition(infixFormula);
+        assertEquals("-8", instance.calculate(variablesValuesMap, infixFormula, 
+                postfixFormula, variables.get(0)));
+        infixFormula = "b + 1";
+        postfixFormula = new ConditionParser(variables).parseCondition(infixFormula);
+        assertEquals("2", instance.calculate(variablesValuesMap, infixFormula, 
+                postfixFormula, variables.get(1)));
+        infixFormula = "0 - a * 2";
+        postfixFormula = new ConditionParser(variables).parseCondition(infixFormula);
+        assertEquals("6", instance.calculate(variablesValuesMap, infixFormula, 
+                postfixFormula, variables.get(1)));
+    }
+    
+    /**
+     * Test of compile method, of class Calculator: the compiled formula 
+     * is evaluated over states.
+     */
+    @Test
+    public void testCompile() {
+        List<Variable> variables = new ArrayList<>();
+        variables.add(new IntegerVariable("a"));
+        variables.add(new BooleanVariable("f"));
+        variables.add(new RangedIntegerVariable("b", 2, 6));
+        Calculator instance = new Calculator(variables);
+        ConditionParser parser = new ConditionParser(variables);
+        String infixFormula = "f && a * 2 > b || !(f)";
+        CompiledExpression condition = instance.compile(infixFormula, 
+                parser.parseCondition(infixFormula));
+        assertTrue(condition.isCondition());
+        assertArrayEquals(new int[] {1, 0, 2}, condition.getVariables());
+        StateVector state = new StateVector(variables.size());
+        state.setValue(0, (short) 4);
+        state.setValue(1, (short) 1);
+        assertEquals(CompiledExpression.ERROR, condition.evaluate(state));
+        state.setValue(2, (short) 6);
+        assertEquals(1, condition.evaluate(state));
+        state.setValue(0, (short) 2);
+        assertEquals(0, condition.evaluate(state));
+        state.setValue(1, (short) 0);
+        assertEquals(1, condition.evaluate(state));
+        infixFormula = "a * 16384";
+        CompiledExpression expression = instance.compile(infixFormula, 
+                parser.parseCondition(infixFormula));
+        assertFalse(expression.isCondition());
+        assertEquals(-32768, expression.evaluate(state));
+        assertEquals(2, expression.evaluate(state, variables.get(2)));
+        assertEquals(CompiledExpression.ERROR, expression.evaluate(state, variables.get(1)));
+        infixFormula = "f + 1";
+        assertEquals(CompiledExpression.ERROR, instance.compile(infixFormula, 
+                parser.parseCondition(infixFormula)).evaluate(state));
+    }
+
+    /**
+     * Test of compile and calculate methods, of class Calculator, division 
+     * by zero, which isn't skipped by ||.
+     */
+    @Test
+    public void testDivisionByZero() {
+        List<Variable> variables = new ArrayList<>();
+        variables.add(new IntegerVariable("x"));
+        variables.add(new BooleanVariable("f"));
+        Calculator instance = new Calculator(variables);
+        ConditionParser parser = new ConditionParser(variables);
+        StateVector state = new StateVector(variables.size());
+        state.setValue(0, (short) 7);
+        state.setValue(1, (short) 1);
+        String infixFormula = "x / 0";
+        CompiledExpression expression = instance.compile(infixFormula, 
+                parser.parseCondition(infixFormula));
+        assertEquals(CompiledExpression.ERROR, expression.evaluate(state));
+        assertEquals(CompiledExpression.ERROR, expression.evaluate(state, variables.get(0)));
+        infixFormula = "f || -(x / (x - 7)) > 1";
+        assertEquals(CompiledExpression.ERROR, instance.compile(infixFormula, 
+                parser.parseCondition(infixFormula)).evaluate(state));
+        Map<Variable, String> variablesValuesMap = new HashMap<>();
+        variablesValuesMap.put(variables.get(0), "7");
+        infixFormula = "x / 0";
+        assertNull(instance.calculate(variablesValuesMap, infixFormula, 
+                parser.parseCondition(infixFormula)));
+    }
 }
@@ -0,0 +1,161 @@
+package com.system.kripkestructure;
+
+import com.system.temporallogic.BDDFixture;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import net.sf.javabdd.BDDPairing;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class KripkeStructureTranslatorTest {
+
+    public KripkeStructureTranslatorTest() {
+    }
+
+    /**
+     * Test of setSymbolicInputs method, of class KripkeStructureTranslator:
+     * read values kept symbolic and enumerated give the same reachable states
+     * and the same transitions from them, a division by zero on unreachable
+     * values included.
+     */
+    @Test
+    public void testSymbolicInputs() {
+        List<String> operators = Arrays.asList("read(k)", "m = k - 3", "if (k > 3)",
+                "{", "m = 20 / m", "}", "f = m > 2", "while (k > 0)", "{",
+                "k = k - 3", "}");
+        KripkeStructureTranslator enumerated = translate(operators, false);
+        KripkeStructureTranslator symbolic = translate(operators, true);
+        assertNotNull(enumerated);
+        assertNotNull(symbolic);
+        assertArrayEquals(enumerated.getCurrentStateVariables(),
+                symbolic.getCurrentStateVariables());
+        BDD reachableStates = reachableStates(enumerated);
+        BDD symbolicReachableStates = reachableStates(symbolic);
+        assertEquals(reachableStates, symbolicReachableStates);
+        BDD transitions = enumerated.getStatesTransitionBDD().and(reachableStates);
+        BDD symbolicTransitions = symbolic.getStatesTransitionBDD().and(reachableStates);
+        assertFalse(transitions.isZero());
+        assertEquals(transitions, symbolicTransitions);
+        reachableStates.free();
+        symbolicReachableStates.free();
+        transitions.free();
+        symbolicTransitions.free();
+    }
+
+    /**
+     * Test of tryTranslate method, of class KripkeStructureTranslator,
+     * a reachable division by zero cancelling the translation both ways.
+     */
+    @Test
+    public void testTryTranslateDivisionByZero() {
+        List<String> operators = Arrays.asList("read(k)", "m = 20 / (k - 2)");
+        assertNull(translate(operators, false));
+        assertNull(translate(operators, true));
+    }
+
+    /**
+     * Test of tryTranslate method, of class KripkeStructureTranslator, values 
+     * enumerated: a loop coming back to a state already explored ends 
+     * the translation, the end of the loop going to its condition.
+     */
+    @Test
+    public void testTryTranslateLoop() {
+        List<String> operators = Arrays.asList("k = 0", "while (k == 0)", "{",
+                "k = 0", "}");
+        KripkeStructureTranslator instance = translate(operators, false);
+        assertNotNull(instance);
+        BDD endOfLoopBDD = encodeState(instance, instance.getCurrentStateVariables(), 3);
+        BDD conditionBDD = encodeState(instance, instance.getNextStateVariables(), 1);
+        BDD transitions = instance.getStatesTransitionBDD().and(endOfLoopBDD);
+        assertFalse(transitions.isZero());
+        assertTrue(transitions.andWith(conditionBDD.not()).isZero());
+        endOfLoopBDD.free();
+        conditionBDD.free();
+    }
+
+    /**
+     * Test of getPCSize method, of class KripkeStructureTranslator: a program 
+     * of 10 statements takes 4 bits of the program counter.
+     */
+    @Test
+    public void testGetPCSize() {
+        List<String> operators = new ArrayList<>();
+        operators.add("k = 0");
+        for (int i = 1; i < 10; i++) {
+            operators.add("k = k + 1");
+        }
+        KripkeStructureTranslator instance = translate(operators, true);
+        assertNotNull(instance);
+        assertEquals(4, instance.getPCSize());
+    }
+
+    /**
+     * Test of getPCSize method, of class KripkeStructureTranslator: a program 
+     * of more than 256 statements is translated, the program counter taking 
+     * more than 8 bits.
+     */
+    @Test
+    public void testGetPCSizeLongProgram() {
+        List<String> operators = new ArrayList<>();
+        operators.add("k = 0");
+        for (int i = 1; i < 300; i++) {
+            operators.add("k = k + 1");
+        }
+        KripkeStructureTranslator instance = translate(operators, true);
+        assertNotNull(instance);
+        assertEquals(9, instance.getPCSize());
+    }
+
+    private KripkeStructureTranslator translate(List<String> operators,
+            boolean isSymbolic) {
+        List<Variable> variables = new ArrayList<>();
+        variables.add(new RangedIntegerVariable("k", 0, 10));
+        variables.add(new RangedIntegerVariable("m", -8, 7));
+        variables.add(new BooleanVariable("f"));
+        KripkeStructureTranslator instance = new KripkeStructureTranslator(operators,
+                variables, new ArrayList<AtomicPredicate>());
+        instance.setSymbolicInputs(isSymbolic);
+        return instance.tryTranslate() ? instance : null;
+    }
+
+    /*
+     * State at the location where k = 0; bits of the program counter go 
+     * first, then the 4 bits of k.
+     */
+    private BDD encodeState(KripkeStructureTranslator instance, int[] stateVariables,
+            int pc) {
+        BDDFactory factory = instance.getStartStatesBDD().getFactory();
+        int pcSize = instance.getPCSize();
+        return BDDFixture.cube(factory, pc, Arrays.copyOfRange(stateVariables, 0, pcSize))
+                .andWith(BDDFixture.cube(factory, 0, Arrays.copyOfRange(stateVariables,
+                pcSize, pcSize + 4)));
+    }
+
+    private BDD reachableStates(KripkeStructureTranslator instance) {
+        BDDFactory factory = instance.getStartStatesBDD().getFactory();
+        BDD relation = instance.getStatesTransitionBDD();
+        BDD currentCube = factory.makeSet(instance.getCurrentStateVariables());
+        BDDPairing nextToCurrent = factory.makePair();
+        nextToCurrent.set(instance.getNextStateVariables(),
+                instance.getCurrentStateVariables());
+        BDD reachedBDD = instance.getStartStatesBDD().id();
+        BDD frontierBDD = reachedBDD.id();
+        while (!frontierBDD.isZero()) {
+            BDD imageBDD = frontierBDD.relprod(relation, currentCube)
+                    .replaceWith(nextToCurrent).andWith(reachedBDD.not());
+            frontierBDD.free();
+            frontierBDD = imageBDD;
+            reachedBDD.orWith(frontierBDD.id());
+        }
+        frontierBDD.free();
+        currentCube.free();
+        return reachedBDD;
+    }
+}
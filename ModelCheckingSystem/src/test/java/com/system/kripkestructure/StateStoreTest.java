@@ -0,0 +1,59 @@
+package com.system.kripkestructure;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class StateStoreTest {
+
+    public StateStoreTest() {
+    }
+
+    /**
+     * Test of add method, of class StateStore, states differing in
+     * one variable only.
+     */
+    @Test
+    public void testAdd() {
+        StateStore instance = new StateStore(3);
+        StateVector state = new StateVector(3);
+        state.setPC(5);
+        state.setValue(0, (short) -1);
+        assertEquals(0, instance.add(state));
+        assertEquals(-1, instance.add(state));
+        state.setValue(2, (short) 0);
+        assertEquals(1, instance.add(state));
+        state.setInput(2);
+        assertEquals(2, instance.add(state));
+        state.setPC(6);
+        assertEquals(3, instance.add(state));
+        assertEquals(4, instance.size());
+    }
+
+    /**
+     * Test of get method, of class StateStore, after the store has grown.
+     */
+    @Test
+    public void testGet() {
+        StateStore instance = new StateStore(5);
+        StateVector state = new StateVector(5);
+        state.setInput(4);
+        for (int i = Short.MIN_VALUE; i <= Short.MAX_VALUE; i++) {
+            state.setPC(i & 0xFF);
+            state.setValue(1, (short) i);
+            assertEquals(i - Short.MIN_VALUE, instance.add(state));
+        }
+        StateVector result = new StateVector(5);
+        instance.get(100, result);
+        assertEquals((Short.MIN_VALUE + 100) & 0xFF, result.getPC());
+        assertEquals(Short.MIN_VALUE + 100, result.getValue(1));
+        assertTrue(result.isUndefined(0));
+        assertTrue(result.isDefined(1));
+        assertTrue(result.isInput(4));
+        assertFalse(result.isDefined(4));
+        assertEquals(-1, instance.add(result));
+    }
+}
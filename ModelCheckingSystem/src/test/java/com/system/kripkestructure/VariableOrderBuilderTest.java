@@ -0,0 +1,58 @@
+package com.system.kripkestructure;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class VariableOrderBuilderTest {
+
+    public VariableOrderBuilderTest() {
+    }
+
+    /**
+     * Test of buildOrder method, of class VariableOrderBuilder, interleaved
+     * and sequential orders.
+     */
+    @Test
+    public void testBuildOrder() {
+        VariableOrderBuilder instance = new VariableOrderBuilder(1,
+                new int[] {1, 3}, new int[] {2, 1}, 4);
+        int[] expResult = {0, 4, 1, 5, 2, 6, 3, 7};
+        assertArrayEquals(expResult, instance.buildOrder(VariableOrdering.INTERLEAVED));
+        expResult = new int[] {0, 1, 2, 3, 4, 5, 6, 7};
+        assertArrayEquals(expResult, instance.buildOrder(VariableOrdering.SEQUENTIAL));
+    }
+
+    /**
+     * Test of buildOrder method, of class VariableOrderBuilder, variables
+     * used together are placed side by side.
+     */
+    @Test
+    public void testBuildOrderForce() {
+        VariableOrderBuilder instance = new VariableOrderBuilder(1,
+                new int[] {1, 2, 3, 4}, new int[] {1, 1, 1, 1}, 5);
+        instance.addDependency(Arrays.asList(0, 3));
+        instance.addDependency(Arrays.asList(1, 2));
+        instance.addDependency(Arrays.asList(0, 3, 1));
+        int[] result = instance.buildOrder(VariableOrdering.FORCE);
+        assertEquals(10, result.length);
+        assertEquals(0, result[0]);
+        assertEquals(5, result[1]);
+        int first = Math.min(indexOf(result, 1), indexOf(result, 4));
+        int second = Math.max(indexOf(result, 1), indexOf(result, 4));
+        assertEquals(2, second - first);
+    }
+
+    private static int indexOf(int[] array, int value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,74 @@
+package com.system.temporallogic;
+
+import com.system.BDDSingleFactory;
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+
+/**
+ * BDDs the tests share: the factory, cubes of values and a counter over
+ * two bits, which current state bits are CURRENT and next state bits NEXT.
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class BDDFixture {
+
+    public static final int[] CURRENT = {0, 1};
+    public static final int[] NEXT = {2, 3};
+
+    private BDDFixture() {
+    }
+
+    /**
+     *
+     * @param numberOfVariables Number of BDD variables the test needs.
+     * @return The single BDDFactory, having at least numberOfVariables
+     * variables.
+     */
+    public static BDDFactory createFactory(int numberOfVariables) {
+        BDDSingleFactory.create(10000, 1000);
+        BDDFactory factory = BDDSingleFactory.getInstanse();
+        if (factory.varNum() < numberOfVariables) {
+            factory.setVarNum(numberOfVariables);
+        }
+        return factory;
+    }
+
+    /**
+     *
+     * @param factory BDDFactory the cube belongs to.
+     * @param value Value encoded by the variables, the most significant bit
+     * first.
+     * @param variables BDD variables of the bits.
+     * @return Cube of the value.
+     */
+    public static BDD cube(BDDFactory factory, int value, int[] variables) {
+        BDD result = factory.one();
+        for (int i = 0; i < variables.length; i++) {
+            if (((value >> (variables.length - 1 - i)) & 1) == 1) {
+                result.andWith(factory.ithVar(variables[i]));
+            }
+            else {
+                result.andWith(factory.nithVar(variables[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @param factory BDDFactory the partitions belong to.
+     * @param isStopping True if the counter stays at 2 instead of going to 0.
+     * @return Transitions of a counter modulo 3, one partition for each value.
+     */
+    public static List<BDD> counter(BDDFactory factory, boolean isStopping) {
+        List<BDD> partitions = new ArrayList<>();
+        for (int value = 0; value < 3; value++) {
+            int nextValue = isStopping && value == 2 ? 2 : (value + 1) % 3;
+            partitions.add(cube(factory, value, CURRENT)
+                    .andWith(cube(factory, nextValue, NEXT)));
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,141 @@
+package com.system.temporallogic;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.junit.Before;
+import org.junit.Test;
+import static com.system.temporallogic.BDDFixture.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class CTLTranslatorTest {
+
+    private BDDFactory factory;
+    private List<BDD> partitions;
+    private List<BDD> atomicPredicates;
+
+    public CTLTranslatorTest() {
+    }
+
+    /**
+     * Sets up a counter modulo 3 over two bits, which stops at 2; the atomic 
+     * predicates are "the counter is 2" and "the counter is 0".
+     */
+    @Before
+    public void setUp() {
+        factory = createFactory(CURRENT.length + NEXT.length);
+        partitions = counter(factory, true);
+        atomicPredicates = new ArrayList<>();
+        atomicPredicates.add(cube(factory, 2, CURRENT));
+        atomicPredicates.add(cube(factory, 0, CURRENT));
+    }
+
+    /**
+     * Test of getBDDResult method, of class CTLTranslator, universal operators.
+     */
+    @Test
+    public void testGetBDDResult() {
+        BDD reachable = cube(factory, 0, CURRENT).orWith(cube(factory, 1, CURRENT))
+                .orWith(cube(factory, 2, CURRENT));
+        assertEquals(reachable, translate("AF 0", new CTLFormulaTable()).and(reachable));
+        assertEquals(cube(factory, 2, CURRENT), translate("AG 0", new CTLFormulaTable())
+                .and(reachable));
+        assertEquals(cube(factory, 2, CURRENT), translate("1 AU 0", new CTLFormulaTable())
+                .and(reachable));
+        assertEquals(reachable, translate("NOT 0 AU 0", new CTLFormulaTable())
+                .and(reachable));
+    }
+
+    /**
+     * Test of getBDDResult method, of class CTLTranslator, a subformula 
+     * repeated in one formula and in another formula sharing the table.
+     */
+    @Test
+    public void testGetBDDResultShared() {
+        CTLFormulaTable table = new CTLFormulaTable();
+        translate("AG 0 AND EF AG 0", table);
+        // 0, NOT 0, EF NOT 0, AG 0, EF AG 0, AND
+        assertEquals(6, table.size());
+        assertEquals(6, table.getResultsNumber());
+        BDD result = translate("EF AG 0", table);
+        assertEquals(6, table.size());
+        assertSame(result, translate("EF AG 0", table));
+        table.clearResults();
+        assertEquals(0, table.getResultsNumber());
+    }
+
+    /**
+     * Test of getBDDResult method, of class CTLTranslator, states reachable 
+     * from 1 as the care set.
+     */
+    @Test
+    public void testGetBDDResultCareSet() {
+        BDD careSet = cube(factory, 1, CURRENT).orWith(cube(factory, 2, CURRENT));
+        assertEquals(careSet, translate("AF 0", new CTLFormulaTable(), careSet));
+        assertEquals(careSet, translate("NOT 1", new CTLFormulaTable(), careSet));
+        assertEquals(cube(factory, 2, CURRENT), translate("AG 0", new CTLFormulaTable(), 
+                careSet));
+        assertTrue(translate("EF 1", new CTLFormulaTable(), careSet).isZero());
+    }
+
+    /**
+     * Test of getCounterexampleTrace method, of class CTLTranslator, finite 
+     * and lasso paths.
+     */
+    @Test
+    public void testGetCounterexampleTrace() {
+        Trace trace = createTranslator("AG NOT 0", null).getCounterexampleTrace(
+                cube(factory, 0, CURRENT));
+        assertFalse(trace.isLasso());
+        assertEquals(3, trace.getStates().size());
+        assertEquals(cube(factory, 2, CURRENT), trace.getStates().get(2));
+        trace = createTranslator("AF 1", null).getCounterexampleTrace(
+                cube(factory, 1, CURRENT));
+        assertTrue(trace.isLasso());
+        assertEquals(2, trace.getStates().size());
+        assertEquals(cube(factory, 1, CURRENT), trace.getStates().get(0));
+        assertEquals(1, trace.getLoopIndex());
+        assertNull(createTranslator("AF 0", null).getCounterexampleTrace(
+                cube(factory, 0, CURRENT)));
+    }
+
+    /**
+     * Test of getWitnessTrace method, of class CTLTranslator.
+     */
+    @Test
+    public void testGetWitnessTrace() {
+        Trace trace = createTranslator("NOT 0 EU 0", null).getWitnessTrace(
+                cube(factory, 1, CURRENT).orWith(cube(factory, 0, CURRENT)));
+        assertEquals(2, trace.getStates().size());
+        assertEquals(cube(factory, 1, CURRENT), trace.getStates().get(0));
+        trace = createTranslator("EX 0 OR EG 0", null).getWitnessTrace(
+                cube(factory, 2, CURRENT));
+        assertEquals(2, trace.getStates().size());
+        assertNull(createTranslator("EF 1", null).getWitnessTrace(
+                cube(factory, 1, CURRENT)));
+    }
+
+    private BDD translate(String formula, CTLFormulaTable table) {
+        return translate(formula, table, null);
+    }
+
+    private BDD translate(String formula, CTLFormulaTable table, BDD careSet) {
+        CTLTranslator instance = createTranslator(formula, careSet);
+        instance.setFormulaTable(table);
+        return instance.getBDDResult();
+    }
+
+    private CTLTranslator createTranslator(String formula, BDD careSet) {
+        CTLTranslator instance = new CTLTranslator(formula);
+        instance.setCareSet(careSet);
+        instance.setAtomicPredicates(atomicPredicates);
+        instance.setStatesTransitionPartitions(partitions);
+        instance.setStateVariables(CURRENT, NEXT);
+        return instance;
+    }
+}
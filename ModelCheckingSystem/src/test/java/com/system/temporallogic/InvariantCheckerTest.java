@@ -0,0 +1,98 @@
+package com.system.temporallogic;
+
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.junit.Before;
+import org.junit.Test;
+import static com.system.temporallogic.BDDFixture.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class InvariantCheckerTest {
+
+    private BDDFactory factory;
+    private List<BDD> partitions;
+
+    public InvariantCheckerTest() {
+    }
+
+    @Before
+    public void setUp() {
+        factory = createFactory(CURRENT.length + NEXT.length);
+        partitions = counter(factory, false);
+    }
+
+    /**
+     * Test of check method, of class InvariantChecker.
+     */
+    @Test
+    public void testCheck() {
+        TransitionRelation relation = new TransitionRelation(factory, partitions,
+                CURRENT, NEXT);
+        InvariantChecker instance = new InvariantChecker(factory, relation,
+                cube(factory, 0, CURRENT), cube(factory, 3, CURRENT), CURRENT);
+        assertTrue(instance.check());
+        assertEquals(3, instance.getLayersNumber());
+        assertTrue(instance.getShortestCounterexample().isEmpty());
+        instance.free();
+        relation.free();
+    }
+
+    /**
+     * Test of getShortestCounterexample and getFirstViolatingStates methods,
+     * of class InvariantChecker, the search stopping at the layer of the
+     * violating state.
+     */
+    @Test
+    public void testGetShortestCounterexample() {
+        TransitionRelation relation = new TransitionRelation(factory, partitions,
+                CURRENT, NEXT);
+        BDD startStates = cube(factory, 0, CURRENT).orWith(cube(factory, 1, CURRENT));
+        InvariantChecker instance = new InvariantChecker(factory, relation,
+                startStates, cube(factory, 0, CURRENT).orWith(cube(factory, 2, CURRENT)),
+                CURRENT);
+        assertFalse(instance.check());
+        assertEquals(1, instance.getLayersNumber());
+        assertEquals(cube(factory, 0, CURRENT), instance.getFirstViolatingStates());
+        assertEquals(cube(factory, 0, CURRENT), instance.getViolatingStartStates());
+        instance.free();
+        instance = new InvariantChecker(factory, relation, cube(factory, 1, CURRENT),
+                cube(factory, 0, CURRENT), CURRENT);
+        assertFalse(instance.check());
+        List<BDD> counterexample = instance.getShortestCounterexample();
+        assertEquals(3, counterexample.size());
+        assertEquals(cube(factory, 1, CURRENT), counterexample.get(0));
+        assertEquals(cube(factory, 2, CURRENT), counterexample.get(1));
+        assertEquals(cube(factory, 0, CURRENT), counterexample.get(2));
+        instance.free();
+        relation.free();
+    }
+
+    /**
+     * Test of getViolatingStates method, of class InvariantChecker, start
+     * states violating the invariant at different distances.
+     */
+    @Test
+    public void testGetViolatingStates() {
+        TransitionRelation relation = new TransitionRelation(factory, partitions,
+                CURRENT, NEXT);
+        BDD startStates = cube(factory, 0, CURRENT).orWith(cube(factory, 1, CURRENT));
+        InvariantChecker instance = new InvariantChecker(factory, relation,
+                startStates, cube(factory, 0, CURRENT), CURRENT);
+        assertFalse(instance.check());
+        assertEquals(cube(factory, 0, CURRENT), instance.getViolatingStartStates());
+        BDD violatingStates = instance.getViolatingStates();
+        assertEquals(startStates, violatingStates.and(startStates));
+        violatingStates.free();
+        instance.free();
+        instance = new InvariantChecker(factory, relation, startStates,
+                cube(factory, 3, CURRENT), CURRENT);
+        assertTrue(instance.getViolatingStates().isZero());
+        instance.free();
+        relation.free();
+    }
+}
@@ -0,0 +1,79 @@
+package com.system.temporallogic;
+
+import java.util.List;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.junit.Before;
+import org.junit.Test;
+import static com.system.temporallogic.BDDFixture.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Alexander Erin <arcquim@gmail.com>
+ */
+public class TransitionRelationTest {
+
+    private BDDFactory factory;
+    private List<BDD> partitions;
+
+    public TransitionRelationTest() {
+    }
+
+    @Before
+    public void setUp() {
+        factory = createFactory(CURRENT.length + NEXT.length);
+        partitions = counter(factory, false);
+    }
+
+    /**
+     * Test of preImage method, of class TransitionRelation, clustered and
+     * separate partitions.
+     */
+    @Test
+    public void testPreImage() {
+        for (int clusterSize : new int[] {0, TransitionRelation.DEFAULT_CLUSTER_SIZE}) {
+            TransitionRelation instance = new TransitionRelation(factory, partitions,
+                    CURRENT, NEXT, clusterSize);
+            assertEquals(cube(factory, 1, CURRENT),
+                    instance.preImage(cube(factory, 2, CURRENT)));
+            assertEquals(cube(factory, 2, CURRENT),
+                    instance.preImage(cube(factory, 0, CURRENT)));
+            assertTrue(instance.preImage(cube(factory, 3, CURRENT)).isZero());
+            instance.free();
+        }
+    }
+
+    /**
+     * Test of postImage method, of class TransitionRelation.
+     */
+    @Test
+    public void testPostImage() {
+        TransitionRelation instance = new TransitionRelation(factory, partitions,
+                CURRENT, NEXT, 0);
+        assertEquals(3, instance.getClustersNumber());
+        BDD states = cube(factory, 0, CURRENT).orWith(cube(factory, 1, CURRENT));
+        assertEquals(cube(factory, 1, CURRENT).orWith(cube(factory, 2, CURRENT)),
+                instance.postImage(states));
+        instance.free();
+    }
+
+    /**
+     * Test of reachableStates method, of class TransitionRelation.
+     */
+    @Test
+    public void testReachableStates() {
+        TransitionRelation instance = new TransitionRelation(factory, partitions,
+                CURRENT, NEXT);
+        BDD reachable = cube(factory, 0, CURRENT).orWith(cube(factory, 1, CURRENT))
+                .orWith(cube(factory, 2, CURRENT));
+        assertEquals(reachable, instance.reachableStates(cube(factory, 2, CURRENT)));
+        assertEquals(cube(factory, 3, CURRENT),
+                instance.reachableStates(cube(factory, 3, CURRENT)));
+        instance.simplify(reachable);
+        assertEquals(cube(factory, 1, CURRENT),
+                instance.preImage(cube(factory, 2, CURRENT), reachable));
+        assertEquals(reachable, instance.reachableStates(cube(factory, 0, CURRENT)));
+        instance.free();
+    }
+}